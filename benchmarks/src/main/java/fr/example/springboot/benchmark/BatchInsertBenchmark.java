@@ -0,0 +1,101 @@
+package fr.example.springboot.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.repository.PostRepository;
+import fr.example.springboot.repository.support.SimpleExtendedJpaRepository;
+
+/**
+ * Inserts posts through PostRepository.save(Iterable) in one transaction,
+ * one statement per post (batch size 1) against the JDBC batches of the
+ * application (batch size 50), with the pooled sequence ids of the
+ * application and with the identity ids used before them. Hibernate has to
+ * run each insert on its own to read an identity back, so the identity
+ * variant is the same at both batch sizes: it is the before of the change.
+ *
+ * @author Nour LABIHI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"SEQUENCE", "IDENTITY"})
+    private String ids;
+
+    @Param({"500"})
+    private int posts;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private PostRepository postRepository;
+
+    @Setup
+    public void setUp() {
+        entityManagerFactory = Fixtures.entityManagerFactory("inserts" + batchSize + ids, batchSize,
+                "IDENTITY".equals(ids));
+        entityManager = entityManagerFactory.createEntityManager();
+
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(entityManager);
+        factory.setRepositoryBaseClass(SimpleExtendedJpaRepository.class);
+        postRepository = factory.getRepository(PostRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deletePosts() {
+        entityManager.getTransaction().begin();
+        entityManager.createQuery("delete from Post").executeUpdate();
+        entityManager.getTransaction().commit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public List<Post> save() {
+        List<Post> batch = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            batch.add(new Post("Post " + i, "content of post " + i));
+        }
+
+        entityManager.getTransaction().begin();
+        List<Post> saved = postRepository.save(batch);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        return saved;
+    }
+
+}
@@ -0,0 +1,31 @@
+package fr.example.springboot.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs the JMH command line with the results written as JSON, to
+ * jmh-result.json unless another -rff file is given, so that the runs of two
+ * commits can be compared.
+ *
+ * @author Nour LABIHI
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        if (!options.contains("-rff")) {
+            options.add("-rff");
+            options.add("jmh-result.json");
+        }
+        Main.main(options.toArray(new String[options.size()]));
+    }
+
+}
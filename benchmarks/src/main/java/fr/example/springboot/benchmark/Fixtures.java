@@ -0,0 +1,143 @@
+package fr.example.springboot.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.User;
+
+/**
+ * Data shared by the benchmarks: pages of posts and comments shaped like the
+ * ones of the API, and an entity manager factory on an in-memory H2
+ * database mapped as in the application.
+ *
+ * @author Nour LABIHI
+ */
+final class Fixtures {
+
+    /**
+     * default page size of the list endpoints
+     */
+    static final int PAGE_SIZE = 20;
+
+    private static final String CONTENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud "
+            + "exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat.";
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        User user = new User("user" + id, "$2a$10$7EqJtq98hPqEX7fNZaFWoO5P5Y5b6vY1bZ6bQ2aW2jJpY1r8Y0d1e",
+                "User " + id, "USER");
+        user.setId(id);
+        user.setEmail("user" + id + "@example.fr");
+        user.setCreatedDate(LocalDateTime.of(2015, 11, 1, 12, 0));
+        user.setVersion(0L);
+        return user;
+    }
+
+    static Post post(long id, User author) {
+        Post post = new Post("Post " + id, CONTENT);
+        post.setId(id);
+        post.setStatus(Post.Status.PUBLISHED);
+        post.setCreatedBy(author);
+        post.setLastModifiedBy(author);
+        post.setCreatedDate(LocalDateTime.of(2015, 12, 1, 12, 0).plusMinutes(id));
+        post.setLastModifiedDate(post.getCreatedDate());
+        post.setCommentCount(id % 7);
+        post.setVersion(0L);
+        return post;
+    }
+
+    static Comment comment(long id, Post post, User author) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent(CONTENT);
+        comment.setPost(post);
+        comment.setCreatedBy(author);
+        comment.setCreatedDate(post.getCreatedDate().plusMinutes(id));
+        comment.setVersion(0L);
+        return comment;
+    }
+
+    /**
+     * a full page of posts by five authors, sorted as the post list.
+     */
+    static Page<Post> postPage() {
+        List<Post> posts = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            posts.add(post(i + 1, user(i % 5 + 1)));
+        }
+        return new PageImpl<>(posts, new PageRequest(0, PAGE_SIZE, Sort.Direction.DESC, "createdDate"), 1000);
+    }
+
+    static Page<Comment> commentPage() {
+        Post post = post(1, user(1));
+        List<Comment> comments = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            comments.add(comment(i + 1, post, user(i % 5 + 1)));
+        }
+        return new PageImpl<>(comments, new PageRequest(0, PAGE_SIZE, Sort.Direction.DESC, "createdDate"), 1000);
+    }
+
+    /**
+     * an entity manager factory on a new in-memory database, without the
+     * second-level cache so that it measures the database work.
+     *
+     * @param batchSize the hibernate.jdbc.batch_size, 1 disables batching
+     */
+    static EntityManagerFactory entityManagerFactory(String database, int batchSize) {
+        return entityManagerFactory(database, batchSize, false);
+    }
+
+    /**
+     * @param identityIds true to map the post ids to an identity column, as
+     *            before the pooled sequences
+     */
+    static EntityManagerFactory entityManagerFactory(String database, int batchSize, boolean identityIds) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.setProperty("hibernate.id.new_generator_mappings", "true");
+        properties.setProperty("hibernate.cache.use_second_level_cache", "false");
+        properties.setProperty("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+
+        HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
+        vendorAdapter.setDatabasePlatform("org.hibernate.dialect.H2Dialect");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setPersistenceUnitName(database);
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(vendorAdapter);
+        factory.setPackagesToScan(Post.class.getPackage().getName(),
+                "org.springframework.data.jpa.convert.threeten");
+        factory.setJpaProperties(properties);
+        if (identityIds) {
+            factory.setMappingResources("META-INF/orm.xml", "identity-orm.xml");
+        }
+        factory.afterPropertiesSet();
+
+        return factory.getObject();
+    }
+
+}
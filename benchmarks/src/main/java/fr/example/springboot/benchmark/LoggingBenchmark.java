@@ -0,0 +1,111 @@
+package fr.example.springboot.benchmark;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.Level;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.WriterAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+
+import fr.example.springboot.web.dto.PostForm;
+
+/**
+ * Cost on the request thread of the debug logs of a request, concatenated
+ * against parameterized, with debug on and off, written through an async
+ * appender to a discarding writer. The appender blocks when its buffer is
+ * full: a tight loop fills it at once, and a dropping appender would only
+ * time the discard of the events. Run with -prof gc to see the allocations.
+ *
+ * @author Nour LABIHI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingBenchmark.class);
+
+    @Param({"DEBUG", "INFO"})
+    private String level;
+
+    private String keyword = "spring";
+
+    private Long id = 42L;
+
+    private PageRequest page = new PageRequest(0, 20);
+
+    private PostForm form;
+
+    @Setup
+    public void setUp() {
+        form = new PostForm();
+        form.setTitle("title");
+        form.setContent("content");
+
+        WriterAppender writer = new WriterAppender(new PatternLayout("%p %t %c - %m%n"), new Writer() {
+
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        AsyncAppender async = new AsyncAppender();
+        async.setBufferSize(8192);
+        async.setBlocking(true);
+        async.addAppender(writer);
+
+        LogManager.resetConfiguration();
+        org.apache.log4j.Logger root = LogManager.getRootLogger();
+        root.addAppender(async);
+        root.setLevel(Level.toLevel(level));
+    }
+
+    @TearDown
+    public void tearDown() {
+        LogManager.shutdown();
+    }
+
+    /**
+     * the logs of a post list and a post update before the change.
+     */
+    @Benchmark
+    public void concatenated() {
+        log.debug("get all posts of q@" + keyword + ", status @" + null + ", page@" + page);
+        log.debug("update post by id @" + id + ", form content@" + form);
+    }
+
+    @Benchmark
+    public void parameterized() {
+        log.debug("get all posts of q@{}, status @{}, page@{}", keyword, null, page);
+        log.debug("update post by id @{}, form content@{}", id, form);
+    }
+
+}
@@ -0,0 +1,64 @@
+package fr.example.springboot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import fr.example.springboot.DTOUtils;
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.web.dto.CommentDetails;
+import fr.example.springboot.web.dto.PostDetails;
+
+/**
+ * Maps the entities of a list page to the DTOs returned by the API.
+ *
+ * @author Nour LABIHI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private Post post;
+
+    private Page<Post> posts;
+
+    private Page<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        posts = Fixtures.postPage();
+        post = posts.getContent().get(0);
+        comments = Fixtures.commentPage();
+    }
+
+    @Benchmark
+    public PostDetails mapPost() {
+        return DTOUtils.map(post, PostDetails.class);
+    }
+
+    @Benchmark
+    public Page<PostDetails> mapPostPage() {
+        return DTOUtils.mapPage(posts, PostDetails.class);
+    }
+
+    @Benchmark
+    public Page<CommentDetails> mapCommentPage() {
+        return DTOUtils.mapPage(comments, CommentDetails.class);
+    }
+
+}
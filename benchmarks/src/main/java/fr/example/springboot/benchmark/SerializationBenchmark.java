@@ -0,0 +1,61 @@
+package fr.example.springboot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.example.springboot.Application;
+import fr.example.springboot.DTOUtils;
+import fr.example.springboot.web.dto.PostDetails;
+
+/**
+ * Serializes a page of posts with the object mapper configured by the
+ * application, as the post list endpoint answers it.
+ *
+ * @author Nour LABIHI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private Page<PostDetails> posts;
+
+    private PostDetails post;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new Application().objectMapperBuilder().build();
+        posts = DTOUtils.mapPage(Fixtures.postPage(), PostDetails.class);
+        post = posts.getContent().get(0);
+    }
+
+    @Benchmark
+    public byte[] postPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public byte[] post() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(post);
+    }
+
+}
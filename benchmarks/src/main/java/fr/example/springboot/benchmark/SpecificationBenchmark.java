@@ -0,0 +1,100 @@
+package fr.example.springboot.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specifications;
+
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.User;
+import fr.example.springboot.repository.KeysetCursor;
+import fr.example.springboot.repository.PostSpecifications;
+import fr.example.springboot.repository.UserSpecifications;
+
+/**
+ * Builds the criteria of the list endpoints, from the specification to the
+ * predicate, on a fresh query each time as Spring Data does. Nothing is
+ * executed.
+ *
+ * @author Nour LABIHI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SpecificationBenchmark {
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private CriteriaBuilder cb;
+
+    private KeysetCursor cursor;
+
+    @Setup
+    public void setUp() {
+        entityManagerFactory = Fixtures.entityManagerFactory("specifications", 1);
+        entityManager = entityManagerFactory.createEntityManager();
+        cb = entityManager.getCriteriaBuilder();
+        cursor = KeysetCursor.of(LocalDateTime.of(2015, 12, 1, 12, 0), 500L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public Predicate postsByKeywordAndStatus() {
+        CriteriaQuery<Post> query = cb.createQuery(Post.class);
+        Root<Post> root = query.from(Post.class);
+        return PostSpecifications.filterByKeywordAndStatus("spring", Post.Status.PUBLISHED)
+                .toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Predicate postsWithoutCriteria() {
+        CriteriaQuery<Post> query = cb.createQuery(Post.class);
+        Root<Post> root = query.from(Post.class);
+        return PostSpecifications.filterByKeywordAndStatus(null, null).toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Predicate postsSeek() {
+        CriteriaQuery<Post> query = cb.createQuery(Post.class);
+        Root<Post> root = query.from(Post.class);
+        return Specifications.where(PostSpecifications.filterByKeywordAndStatus("spring", Post.Status.PUBLISHED))
+                .and(PostSpecifications.seek(cursor, true))
+                .toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Predicate usersByKeywordAndRole() {
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+        return UserSpecifications.filterUsersByKeyword("user", "ADMIN").toPredicate(root, query, cb);
+    }
+
+}
@@ -11,4 +11,6 @@ public class ApiErrors {
 
     public static final String INVALID_REQUEST = PREFIX + "INVALID_REQUEST";
 
+    public static final String BATCH_FAILED = PREFIX + "BATCH_FAILED";
+
 }
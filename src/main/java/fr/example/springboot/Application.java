@@ -6,24 +6,48 @@ import static springfox.documentation.builders.PathSelectors.regex;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
 
+import org.apache.log4j.LogManager;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.embedded.FilterRegistrationBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.orm.jpa.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.AdviceMode;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.convert.threeten.Jsr310JpaConverters;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.Repository;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
@@ -31,7 +55,13 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.access.channel.ChannelProcessingFilter;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -39,9 +69,29 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Predicate;
 
 import fr.example.springboot.domain.User;
+import fr.example.springboot.metrics.ProfilingInterceptorPostProcessor;
+import fr.example.springboot.metrics.QueryProfiler;
+import fr.example.springboot.metrics.QueryProfilingFilter;
+import fr.example.springboot.metrics.RequestMetrics;
+import fr.example.springboot.metrics.RequestMetricsInterceptor;
+import fr.example.springboot.metrics.ServiceProfilingInterceptor;
 import fr.example.springboot.repository.UserRepository;
+import fr.example.springboot.repository.support.ReadOnlyRoutingDataSource;
+import fr.example.springboot.repository.support.ReplicaSeeder;
+import fr.example.springboot.repository.support.SimpleExtendedJpaRepository;
+import fr.example.springboot.security.AuthenticationCache;
+import fr.example.springboot.security.CachingAuthenticationProvider;
+import fr.example.springboot.security.JwtAuthenticationFilter;
+import fr.example.springboot.security.JwtTokenService;
+import fr.example.springboot.security.PrincipalCache;
 import fr.example.springboot.security.SecurityUtil;
 import fr.example.springboot.security.UserDetailsServiceImpl;
+import fr.example.springboot.security.UserPrincipal;
+import fr.example.springboot.tracing.SecurityTracingFilter;
+import fr.example.springboot.tracing.Tracer;
+import fr.example.springboot.tracing.TracingFilter;
+import fr.example.springboot.tracing.TracingHandlerInterceptor;
+import fr.example.springboot.tracing.TracingMethodInterceptor;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.AuthorizationScopeBuilder;
 import springfox.documentation.service.ApiInfo;
@@ -63,19 +113,36 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 @EntityScan(basePackageClasses = {User.class, Jsr310JpaConverters.class})
 @EnableSpringDataWebSupport()
 @EnableJpaAuditing(auditorAwareRef = "auditor")
+@EnableJpaRepositories(repositoryBaseClass = SimpleExtendedJpaRepository.class)
+@EnableScheduling
 public class Application {
 
+    /**
+     * le contexte est fermé avant log4j, pour que l'appender asynchrone écrive
+     * aussi les événements de l'arrêt
+     */
     public static void main(String[] args) {
-        SpringApplication.run(Application.class, args);
+        SpringApplication application = new SpringApplication(Application.class);
+        application.setRegisterShutdownHook(false);
+
+        ConfigurableApplicationContext context = application.run(args);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            context.close();
+            LogManager.shutdown();
+        }));
     }
     
     /**
-     * renvoie l'utilisateur courant
+     * renvoie l'utilisateur courant, sous forme de référence JPA : le principal
+     * est une valeur immuable, pas une entité
      * @return
      */
     @Bean
-    public AuditorAware<User> auditor() {
-        return () -> SecurityUtil.currentUser();
+    public AuditorAware<User> auditor(UserRepository userRepository) {
+        return () -> {
+            UserPrincipal user = SecurityUtil.currentUser();
+            return user == null ? null : userRepository.getOne(user.getId());
+        };
     }
     
     /**
@@ -96,6 +163,187 @@ public class Application {
         return mapperBuilder;
     }
 
+    /**
+     * Configuration MVC : mesure des requêtes de l'API par méthode de
+     * contrôleur
+     *
+     * @author Nour LABIHI
+     */
+    @Configuration
+    public static class WebConfig extends WebMvcConfigurerAdapter {
+
+        @Inject
+        private RequestMetrics requestMetrics;
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new RequestMetricsInterceptor(requestMetrics))
+                    .addPathPatterns(Constants.URI_API_PREFIX + "/**");
+        }
+    }
+
+    /**
+     * Configuration du profilage des requêtes SQL : par requête HTTP, puis par
+     * méthode de BlogService et UserService. Désactivée par
+     * app.profiling.enabled=false.
+     *
+     * @author Nour LABIHI
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "app.profiling", name = "enabled", matchIfMissing = true)
+    public static class ProfilingConfig {
+
+        /**
+         * statique, pour être déclaré avant la fabrique de l'entity manager
+         * qu'il configure
+         */
+        @Bean
+        public static ProfilingInterceptorPostProcessor profilingInterceptorPostProcessor() {
+            return new ProfilingInterceptorPostProcessor();
+        }
+
+        /**
+         * avant la sécurité, pour compter aussi les requêtes de
+         * l'authentification, et juste après le traçage
+         */
+        @Bean
+        public FilterRegistrationBean queryProfilingFilter(QueryProfiler queryProfiler) {
+            FilterRegistrationBean registration = new FilterRegistrationBean(new QueryProfilingFilter(queryProfiler));
+            registration.addUrlPatterns(Constants.URI_API_PREFIX + "/*");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+            return registration;
+        }
+
+        @Bean
+        public Advisor serviceProfilingAdvisor() {
+            AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+            pointcut.setExpression("execution(public * fr.example.springboot.service.BlogService.*(..))"
+                    + " || execution(public * fr.example.springboot.service.UserService.*(..))");
+
+            return new DefaultPointcutAdvisor(pointcut, new ServiceProfilingInterceptor());
+        }
+    }
+
+    /**
+     * Configuration du traçage des requêtes : une trace par requête de l'API,
+     * avec un span par filtre de sécurité, contrôleur, méthode de service,
+     * appel de repository et requête SQL. Désactivée par
+     * app.tracing.enabled=false.
+     *
+     * @author Nour LABIHI
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "app.tracing", name = "enabled", matchIfMissing = true)
+    public static class TracingConfig extends WebMvcConfigurerAdapter {
+
+        @Bean
+        public FilterRegistrationBean tracingFilter(Tracer tracer) {
+            FilterRegistrationBean registration = new FilterRegistrationBean(new TracingFilter(tracer));
+            registration.addUrlPatterns(Constants.URI_API_PREFIX + "/*");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+
+        @Bean
+        public Advisor serviceTracingAdvisor() {
+            AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+            pointcut.setExpression("execution(public * fr.example.springboot.service.BlogService.*(..))"
+                    + " || execution(public * fr.example.springboot.service.UserService.*(..))");
+
+            return new DefaultPointcutAdvisor(pointcut, new TracingMethodInterceptor());
+        }
+
+        /**
+         * les repositories Spring Data sont des proxies JDK : ils sont
+         * reconnus à leur interface plutôt que par une expression AspectJ
+         */
+        @Bean
+        public Advisor repositoryTracingAdvisor() {
+            return new DefaultPointcutAdvisor(new ComposablePointcut(new RootClassFilter(Repository.class)),
+                    new TracingMethodInterceptor());
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new TracingHandlerInterceptor())
+                    .addPathPatterns(Constants.URI_API_PREFIX + "/**");
+        }
+    }
+
+    /**
+     * Configuration des sources de données : les transactions en lecture seule
+     * sont envoyées au réplica, les autres au primaire. Active seulement si
+     * app.datasource.replica.url est renseigné.
+     *
+     * @author Nour LABIHI
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "app.datasource.replica", name = "url")
+    public static class DataSourceConfig {
+
+        /**
+         * les réglages du pool, spring.datasource.*, sont liés comme le fait
+         * l'autoconfiguration de Spring Boot
+         */
+        @Bean
+        @ConfigurationProperties(prefix = DataSourceProperties.PREFIX)
+        public DataSource primaryDataSource(DataSourceProperties properties) {
+            return DataSourceBuilder.create(properties.getClassLoader())
+                    .driverClassName(properties.getDriverClassName())
+                    .url(properties.getUrl())
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+        }
+
+        @Bean
+        @ConfigurationProperties(prefix = "app.datasource.replica")
+        public DataSource replicaDataSource(
+                @Value("${app.datasource.replica.url}") String url,
+                @Value("${app.datasource.replica.username:}") String username,
+                @Value("${app.datasource.replica.password:}") String password) {
+            return DataSourceBuilder.create()
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+        }
+
+        /**
+         * copie la base primaire H2 dans le réplica H2, pour le profil
+         * replica ; dépend de la fabrique de l'entity manager, qui a créé le
+         * schéma et chargé import.sql
+         */
+        @Bean
+        @ConditionalOnProperty(prefix = "app.datasource.replica", name = "seed-from-primary")
+        public ReplicaSeeder replicaSeeder(EntityManagerFactory entityManagerFactory,
+                @Qualifier("primaryDataSource") DataSource primary,
+                @Qualifier("replicaDataSource") DataSource replica) {
+            return new ReplicaSeeder(primary, replica);
+        }
+
+        /**
+         * la connexion n'est demandée qu'à la première requête, une fois la
+         * transaction marquée en lecture seule
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(
+                @Qualifier("primaryDataSource") DataSource primary,
+                @Qualifier("replicaDataSource") DataSource replica) {
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(ReadOnlyRoutingDataSource.Route.PRIMARY, primary);
+            targets.put(ReadOnlyRoutingDataSource.Route.REPLICA, replica);
+
+            ReadOnlyRoutingDataSource routing = new ReadOnlyRoutingDataSource();
+            routing.setTargetDataSources(targets);
+            routing.setDefaultTargetDataSource(primary);
+            routing.afterPropertiesSet();
+
+            return new LazyConnectionDataSourceProxy(routing);
+        }
+    }
+
     /**
      * Congifuration de documentation d'API
      * 
@@ -126,7 +374,7 @@ public class Application {
             );
             return new Docket(DocumentationType.SWAGGER_2)
                     .directModelSubstitute(LocalDateTime.class, String.class)
-                    .ignoredParameterTypes(User.class)
+                    .ignoredParameterTypes(User.class, UserPrincipal.class)
                     .securitySchemes(newArrayList(new BasicAuth("test")))
                     .securityContexts(securityContexts)
                     .apiInfo(apiInfo())
@@ -170,6 +418,15 @@ public class Application {
         @Inject
         private UserRepository userRepository;
 
+        @Inject
+        private AuthenticationCache authenticationCache;
+
+        @Inject
+        private JwtTokenService jwtTokenService;
+
+        @Inject
+        private PrincipalCache principalCache;
+
         @Override
         public void configure(WebSecurity web) throws Exception {
             web
@@ -189,14 +446,16 @@ public class Application {
 
             http
                     .authorizeRequests()
-                    .antMatchers("/api/signup", "/api/users/username-check")
+                    .antMatchers("/api/signup", "/api/users/username-check", "/api/auth/**")
                     .permitAll()
                     .and()
                         .authorizeRequests()
                         .regexMatchers(HttpMethod.GET, "^/api/users/[\\d]*(\\/)?$").authenticated()
                         .regexMatchers(HttpMethod.GET, "^/api/users(\\/)?(\\?.+)?$").hasRole("ADMIN")
                         .regexMatchers(HttpMethod.DELETE, "^/api/users/[\\d]*(\\/)?$").hasRole("ADMIN")
+                        .regexMatchers(HttpMethod.PATCH, "^/api/users/[\\d]*(\\/)?$").hasRole("ADMIN")
                         .regexMatchers(HttpMethod.POST, "^/api/users(\\/)?$").hasRole("ADMIN")
+                        .antMatchers("/api/admin/**").hasRole("ADMIN")
                     .and()
                         .authorizeRequests()
                         .antMatchers("/api/**").authenticated()
@@ -209,13 +468,21 @@ public class Application {
                     .and()
                         .httpBasic()
                     .and()
+                        .addFilterBefore(new JwtAuthenticationFilter(jwtTokenService), BasicAuthenticationFilter.class)
+                        .addFilterBefore(SecurityTracingFilter.opening(), ChannelProcessingFilter.class)
+                        .addFilterAfter(SecurityTracingFilter.closing(), FilterSecurityInterceptor.class)
                         .csrf().disable();
         }
 
         @Override
         protected void configure(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
-                authenticationManagerBuilder.userDetailsService(new UserDetailsServiceImpl(userRepository))
-                    .passwordEncoder(passwordEncoder());
+            DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+            daoAuthenticationProvider.setUserDetailsService(userDetailsServiceBean());
+            daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+            daoAuthenticationProvider.afterPropertiesSet();
+
+            authenticationManagerBuilder
+                    .authenticationProvider(new CachingAuthenticationProvider(daoAuthenticationProvider, authenticationCache));
         }
 
         @Bean
@@ -227,7 +494,7 @@ public class Application {
         @Bean
         @Override
         public UserDetailsService userDetailsServiceBean() throws Exception {
-            return super.userDetailsServiceBean();
+            return new UserDetailsServiceImpl(userRepository, principalCache);
         }
 
         @Bean
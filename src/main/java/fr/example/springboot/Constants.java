@@ -18,4 +18,28 @@ public class Constants {
     public static final String URI_POSTS = "/posts";
 
     public static final String URI_COMMENTS = "/comments";
+
+    public static final String URI_ADMIN = "/admin";
+
+    public static final String URI_AUTH = "/auth";
+
+    /**
+     * request parameter switching a list to the cursor pagination
+     */
+    public static final String PARAM_CURSOR = "cursor";
+
+    /**
+     * request parameter queueing a comment instead of saving it in the request
+     */
+    public static final String PARAM_ASYNC = "async";
+
+    /**
+     * largest page of the cursor pagination
+     */
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * largest number of items accepted by a batch endpoint
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
 }
@@ -0,0 +1,175 @@
+package fr.example.springboot;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.User;
+import fr.example.springboot.web.dto.CommentDetails;
+import fr.example.springboot.web.dto.CommentForm;
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostForm;
+import fr.example.springboot.web.dto.ProfileForm;
+import fr.example.springboot.web.dto.SignupForm;
+import fr.example.springboot.web.dto.SimpleUserDetails;
+import fr.example.springboot.web.dto.UserDetails;
+import fr.example.springboot.web.dto.UserForm;
+
+/**
+ * Straight-line mappers between the entities and the DTOs, written out once
+ * instead of being matched by reflection on every call.
+ *
+ * Each mapper copies exactly the properties ModelMapper used to match for the
+ * same pair of types, so switching {@link DTOUtils} to these does not change
+ * the API output.
+ *
+ * @author Nour LABIHI
+ */
+final class DTOMappers {
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Mapper<?, ?>>> MAPPERS = new ConcurrentHashMap<>();
+
+    static {
+        register(Post.class, PostDetails.class, PostDetails::new, DTOMappers::copyPost);
+        register(Comment.class, CommentDetails.class, CommentDetails::new, DTOMappers::copyComment);
+        register(User.class, UserDetails.class, UserDetails::new, DTOMappers::copyUser);
+        register(User.class, SimpleUserDetails.class, SimpleUserDetails::new, DTOMappers::copySimpleUser);
+
+        register(PostForm.class, Post.class, Post::new, DTOMappers::copyPostForm);
+        register(CommentForm.class, Comment.class, Comment::new, DTOMappers::copyCommentForm);
+        register(SignupForm.class, User.class, User::new, DTOMappers::copySignupForm);
+        register(UserForm.class, User.class, User::new, DTOMappers::copyUserForm);
+        register(ProfileForm.class, User.class, User::new, DTOMappers::copyProfileForm);
+    }
+
+    private DTOMappers() {
+    }
+
+    /**
+     * finds the mapper registered for the given pair, walking up the source
+     * class hierarchy so that Hibernate proxies resolve to their entity mapper.
+     *
+     * @return the mapper, or null if this pair is not registered
+     */
+    @SuppressWarnings("unchecked")
+    static <S, T> Mapper<S, T> find(Class<?> sourceClass, Class<T> targetClass) {
+        for (Class<?> type = sourceClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            ConcurrentMap<Class<?>, Mapper<?, ?>> byTarget = MAPPERS.get(type);
+            if (byTarget != null) {
+                Mapper<?, ?> mapper = byTarget.get(targetClass);
+                if (mapper != null) {
+                    if (type != sourceClass) {
+                        MAPPERS.computeIfAbsent(sourceClass, k -> new ConcurrentHashMap<>())
+                                .putIfAbsent(targetClass, mapper);
+                    }
+                    return (Mapper<S, T>) mapper;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <S, T> void register(Class<S> sourceClass, Class<T> targetClass, Supplier<T> factory,
+            BiConsumer<S, T> copier) {
+        MAPPERS.computeIfAbsent(sourceClass, k -> new ConcurrentHashMap<>())
+                .put(targetClass, new Mapper<>(factory, copier));
+    }
+
+    private static void copyPost(Post source, PostDetails target) {
+        target.setId(source.getId());
+        target.setVersion(source.getVersion());
+        target.setTitle(source.getTitle());
+        target.setContent(source.getContent());
+        target.setStatus(source.getStatus() == null ? null : source.getStatus().toString());
+        target.setCreatedBy(toSimpleUser(source.getCreatedBy()));
+        target.setCreatedDate(source.getCreatedDate());
+        target.setLastModifiedBy(toSimpleUser(source.getLastModifiedBy()));
+        target.setLastModifiedDate(source.getLastModifiedDate());
+        target.setCommentCount(source.getCommentCount());
+    }
+
+    private static void copyComment(Comment source, CommentDetails target) {
+        target.setId(source.getId());
+        target.setVersion(source.getVersion());
+        target.setContent(source.getContent());
+        target.setCreatedBy(toSimpleUser(source.getCreatedBy()));
+        target.setCreatedDate(source.getCreatedDate());
+    }
+
+    private static void copyUser(User source, UserDetails target) {
+        target.setId(source.getId());
+        target.setVersion(source.getVersion());
+        target.setUsername(source.getUsername());
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+        target.setRole(source.getRole());
+        target.setCreatedDate(source.getCreatedDate());
+    }
+
+    private static void copySimpleUser(User source, SimpleUserDetails target) {
+        target.setId(source.getId());
+        target.setUsername(source.getUsername());
+        target.setName(source.getName());
+    }
+
+    private static SimpleUserDetails toSimpleUser(User user) {
+        if (user == null) {
+            return null;
+        }
+        SimpleUserDetails details = new SimpleUserDetails();
+        copySimpleUser(user, details);
+        return details;
+    }
+
+    private static void copyPostForm(PostForm source, Post target) {
+        target.setTitle(source.getTitle());
+        target.setContent(source.getContent());
+    }
+
+    private static void copyCommentForm(CommentForm source, Comment target) {
+        target.setContent(source.getContent());
+    }
+
+    private static void copySignupForm(SignupForm source, User target) {
+        target.setUsername(source.getUsername());
+        target.setPassword(source.getPassword());
+    }
+
+    private static void copyUserForm(UserForm source, User target) {
+        target.setUsername(source.getUsername());
+        target.setPassword(source.getPassword());
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+        target.setRole(source.getRole());
+    }
+
+    private static void copyProfileForm(ProfileForm source, User target) {
+        target.setName(source.getName());
+        target.setEmail(source.getEmail());
+    }
+
+    static final class Mapper<S, T> {
+
+        private final Supplier<T> factory;
+
+        private final BiConsumer<S, T> copier;
+
+        private Mapper(Supplier<T> factory, BiConsumer<S, T> copier) {
+            this.factory = factory;
+            this.copier = copier;
+        }
+
+        T map(S source) {
+            T target = factory.get();
+            copier.accept(source, target);
+            return target;
+        }
+
+        void mapTo(S source, T target) {
+            copier.accept(source, target);
+        }
+    }
+}
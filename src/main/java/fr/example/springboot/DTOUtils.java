@@ -3,10 +3,17 @@ package fr.example.springboot;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.LongSupplier;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import fr.example.springboot.tracing.Span;
+import fr.example.springboot.tracing.Trace;
 
 /**
  *
@@ -16,36 +23,91 @@ public class DTOUtils {
 
     //private static final Logger log = LoggerFactory.getLogger(DTOUtils.class);
 
+    /**
+     * only used for the pairs which have no mapper in {@link DTOMappers}
+     */
     private static final ModelMapper INSTANCE = new ModelMapper();
 
     public static <S, T> T map(S source, Class<T> targetClass) {
+        DTOMappers.Mapper<S, T> mapper = DTOMappers.find(source.getClass(), targetClass);
+        if (mapper != null) {
+            return mapper.map(source);
+        }
         return INSTANCE.map(source, targetClass);
     }
 
+    @SuppressWarnings("unchecked")
     public static <S, T> void mapTo(S source, T dist) {
+        for (Class<?> type = dist.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            DTOMappers.Mapper<S, T> mapper = DTOMappers.find(source.getClass(), (Class<T>) type);
+            if (mapper != null) {
+                mapper.mapTo(source, dist);
+                return;
+            }
+        }
         INSTANCE.map(source, dist);
     }
 
     public static <S, T> List<T> mapList(List<S> source, Class<T> targetClass) {
-        List<T> list = new ArrayList<>();
+        Span span = Trace.open("DTOUtils.mapList");
+        if (span != null) {
+            span.setAttribute("target", targetClass.getSimpleName()).setAttribute("size", source.size());
+        }
+
+        List<T> list = new ArrayList<>(source.size());
         for (int i = 0; i < source.size(); i++) {
-            T target = INSTANCE.map(source.get(i), targetClass);
+            T target = map(source.get(i), targetClass);
             list.add(target);
         }
 
+        Trace.close(span);
         return list;
     }
 
     public static <S, T> Page<T> mapPage(Page<S> source, Class<T> targetClass) {
-        List<S> sourceList = source.getContent();
-
-        List<T> list = new ArrayList<>();
-        for (int i = 0; i < sourceList.size(); i++) {
-            T target = INSTANCE.map(sourceList.get(i), targetClass);
-            list.add(target);
-        }
+        List<T> list = mapList(source.getContent(), targetClass);
 
         return new PageImpl<>(list, new PageRequest(source.getNumber(), source.getSize(), source.getSort()),
                 source.getTotalElements());
     }
+
+    /**
+     * maps a slice keeping its shape: a page when the source is a page, else a
+     * slice which only knows whether there is a next one.
+     */
+    public static <S, T> Slice<T> mapPage(Slice<S> source, Class<T> targetClass) {
+        if (source instanceof Page) {
+            return mapPage((Page<S>) source, targetClass);
+        }
+
+        List<T> list = mapList(source.getContent(), targetClass);
+
+        return new SliceImpl<>(list, new PageRequest(source.getNumber(), source.getSize(), source.getSort()),
+                source.hasNext());
+    }
+
+    /**
+     * maps a slice into a page whose total comes from the given counter.
+     */
+    public static <S, T> Page<T> mapPage(Slice<S> source, Class<T> targetClass, LongSupplier totalCounter) {
+        return toPage(mapPage(source, targetClass), totalCounter);
+    }
+
+    /**
+     * turns a slice into a page. The counter is only called when the total can
+     * not be told from the slice itself, i.e. unless this is the last page.
+     */
+    public static <T> Page<T> toPage(Slice<T> slice, LongSupplier totalCounter) {
+        Pageable pageable = new PageRequest(slice.getNumber(), slice.getSize(), slice.getSort());
+        long offset = (long) slice.getNumber() * slice.getSize();
+
+        long total;
+        if (!slice.hasNext() && (slice.hasContent() || offset == 0)) {
+            total = offset + slice.getNumberOfElements();
+        } else {
+            total = totalCounter.getAsLong();
+        }
+
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
 }
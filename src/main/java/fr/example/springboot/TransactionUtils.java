@@ -0,0 +1,30 @@
+package fr.example.springboot;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ *
+ * @author Nour LABIHI
+ */
+public class TransactionUtils {
+
+    /**
+     * runs the action once the current transaction has committed, or right
+     * away when there is no transaction. Used to keep the in-memory caches
+     * and indexes in step with what other transactions can read.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package fr.example.springboot.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells whether a key was evicted while its value was being loaded, so that a
+ * value read before a change is not put back in a cache after the change
+ * evicted it.
+ *
+ * The key is often only known once the value is loaded (an authentication
+ * finds its user by username), so the loads take a stamp of one clock shared
+ * by all the keys, and each eviction records the clock value for its key.
+ * One entry per evicted key is kept.
+ *
+ * @author Nour LABIHI
+ */
+public class Generations<K> {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final ConcurrentMap<K, Long> evictions = new ConcurrentHashMap<>();
+
+    /**
+     * the stamp to take before loading a value
+     */
+    public long current() {
+        return clock.get();
+    }
+
+    /**
+     * records an eviction of the key, to be called before the entries are
+     * removed.
+     */
+    public void bump(K key) {
+        evictions.merge(key, clock.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * @return true if the key was evicted after the stamp was taken
+     */
+    public boolean changedSince(K key, long stamp) {
+        Long evictedAt = evictions.get(key);
+        return evictedAt != null && evictedAt > stamp;
+    }
+
+}
@@ -3,15 +3,24 @@ package fr.example.springboot.domain;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 
@@ -23,6 +32,10 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  *
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@NamedEntityGraph(name = Comment.WITH_AUTHOR, attributeNodes = @NamedAttributeNode("createdBy"))
 @Table(name = "comments")
 @JsonIgnoreProperties("post")
 public class Comment implements Serializable {
@@ -32,8 +45,14 @@ public class Comment implements Serializable {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * entity graph of a comment with its author, for the lists of comments
+     */
+    public static final String WITH_AUTHOR = "Comment.withAuthor";
+
     @Id()
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -41,10 +60,10 @@ public class Comment implements Serializable {
     private String content;
 
     @JoinColumn(name = "post_id")
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     private Post post;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     @CreatedBy
     private User createdBy;
@@ -53,6 +72,10 @@ public class Comment implements Serializable {
     @CreatedDate
     private LocalDateTime createdDate;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -61,6 +84,14 @@ public class Comment implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getContent() {
         return content;
     }
@@ -93,9 +124,12 @@ public class Comment implements Serializable {
         this.createdDate = createdDate;
     }
 
+    /**
+     * the post and the users are left out, they may be lazy proxies.
+     */
     @Override
     public String toString() {
-        return "Comment{" + "id=" + id + ", content=" + content + ", post=" + post + ", createdBy=" + createdBy + ", createdDate=" + createdDate + '}';
+        return "Comment{" + "id=" + id + ", createdDate=" + createdDate + '}';
     }
 
 }
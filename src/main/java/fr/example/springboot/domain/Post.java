@@ -3,17 +3,27 @@ package fr.example.springboot.domain;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 
@@ -22,6 +32,14 @@ import org.springframework.data.annotation.CreatedDate;
  * @author  Nour LABIHI
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@BatchSize(size = 20)
+@NamedEntityGraph(name = Post.WITH_AUTHORS, attributeNodes = {
+    @NamedAttributeNode("createdBy"),
+    @NamedAttributeNode("lastModifiedBy")
+})
 @Table(name = "posts")
 public class Post implements Serializable {
 
@@ -30,6 +48,11 @@ public class Post implements Serializable {
      */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * entity graph of a post with both of its authors, for the details
+     */
+    public static final String WITH_AUTHORS = "Post.withAuthors";
+
     public enum Status {
 
         DRAFT,
@@ -46,7 +69,8 @@ public class Post implements Serializable {
     }
 
     @Id()
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -64,7 +88,7 @@ public class Post implements Serializable {
 //    @OneToMany(mappedBy = "post", cascade = {CascadeType.ALL})
 //    private List<Comment> comments = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     @CreatedBy
     private User createdBy;
@@ -73,7 +97,7 @@ public class Post implements Serializable {
     @CreatedDate
     private LocalDateTime createdDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "last_modified_by")
     @CreatedBy
     private User lastModifiedBy;
@@ -82,6 +106,17 @@ public class Post implements Serializable {
     @CreatedDate
     private LocalDateTime lastModifiedDate;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    /**
+     * maintained by {@link fr.example.springboot.service.CommentCounter} only,
+     * never written by the updates of the post so they can not overwrite it.
+     */
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private long commentCount;
+
     public Long getId() {
         return id;
     }
@@ -90,6 +125,22 @@ public class Post implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -148,7 +199,7 @@ public class Post implements Serializable {
 
     @Override
     public String toString() {
-        return "Post{" + "title=" + title + ", content=" + content + ", status=" + status + ", createdBy=" + createdBy + ", createdDate=" + createdDate + ", lastModifiedBy=" + lastModifiedBy + ", lastModifiedDate=" + lastModifiedDate + '}';
+        return "Post{" + "id=" + id + ", title=" + title + ", status=" + status + ", version=" + version + ", createdDate=" + createdDate + ", lastModifiedDate=" + lastModifiedDate + '}';
     }
 
 }
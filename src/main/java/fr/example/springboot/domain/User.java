@@ -2,16 +2,26 @@ package fr.example.springboot.domain;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -23,6 +33,10 @@ import org.springframework.security.core.userdetails.UserDetails;
  */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@BatchSize(size = 20)
 @Table(name = "user")
 public class User implements UserDetails, Serializable {
 
@@ -31,8 +45,11 @@ public class User implements UserDetails, Serializable {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	private static final ConcurrentMap<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
 	@Id()
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+	@SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
 	@Column(name = "id")
 	private Long id;
 
@@ -55,6 +72,10 @@ public class User implements UserDetails, Serializable {
 	@CreatedDate
 	private LocalDateTime createdDate;
 
+	@Version
+	@Column(name = "version")
+	private Long version;
+
 	public User() {
 	}
 
@@ -116,9 +137,24 @@ public class User implements UserDetails, Serializable {
 		this.createdDate = createdDate;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	/**
+	 * the authorities of a role never change, so each role builds its list once.
+	 */
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
-		return Arrays.asList(new SimpleGrantedAuthority("ROLE_" + this.role));
+		if (this.role == null) {
+			return Collections.emptyList();
+		}
+		return AUTHORITIES.computeIfAbsent(this.role,
+				r -> Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + r)));
 	}
 
 	@Override
@@ -152,10 +188,13 @@ public class User implements UserDetails, Serializable {
 		return true;
 	}
 
+	/**
+	 * without the password hash, the users end up in the logs
+	 */
 	@Override
 	public String toString() {
-		return "User{" + "id=" + id + ", username=" + username + ", password=" + password + ", name=" + name
-				+ ", email=" + email + ", role=" + role + ", createdDate=" + createdDate + '}';
+		return "User{" + "id=" + id + ", username=" + username + ", name=" + name + ", email=" + email + ", role="
+				+ role + ", createdDate=" + createdDate + '}';
 	}
 
 	public Builder builder() {
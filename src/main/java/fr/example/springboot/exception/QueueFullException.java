@@ -0,0 +1,15 @@
+package fr.example.springboot.exception;
+
+/**
+ * thrown when a bounded queue can not take more work, answered with 429.
+ *
+ * @author Nour LABIHI
+ */
+public class QueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
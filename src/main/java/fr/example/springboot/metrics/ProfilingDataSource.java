@@ -0,0 +1,131 @@
+package fr.example.springboot.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.util.ReflectionUtils;
+
+import fr.example.springboot.tracing.Span;
+import fr.example.springboot.tracing.Trace;
+
+/**
+ * Times the statements executed on the connections of the target data source
+ * and adds them to the {@link QueryProfile} of the current thread, if any.
+ * When the thread is traced, the statements and the connection requests also
+ * get their span.
+ *
+ * @author Nour LABIHI
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    /**
+     * longest SQL kept in a span
+     */
+    private static final int MAX_TRACED_SQL = 2000;
+
+    public ProfilingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Span span = Trace.open("jdbc getConnection", Span.Kind.CLIENT);
+        try {
+            return connection(super.getConnection());
+        } finally {
+            Trace.close(span);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Span span = Trace.open("jdbc getConnection", Span.Kind.CLIENT);
+        try {
+            return connection(super.getConnection(username, password));
+        } finally {
+            Trace.close(span);
+        }
+    }
+
+    /**
+     * closes the target pool, whose close method the destroy method inferred
+     * for the dataSource bean would no longer find on this wrapper.
+     */
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+            return;
+        }
+
+        // the Tomcat pool has a close method but is not AutoCloseable
+        Method close = ReflectionUtils.findMethod(target.getClass(), "close");
+        if (close != null) {
+            ReflectionUtils.invokeMethod(close, target);
+        }
+    }
+
+    private static Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement && method.getReturnType().isInterface()) {
+                        // the SQL of prepareStatement and prepareCall
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                                : null;
+                        return statement((Statement) result, method.getReturnType(), sql);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object statement(Statement target, Class<?> type, String preparedSql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : preparedSql;
+            Span span = Trace.current() != null ? Trace.open("jdbc " + method.getName(), Span.Kind.CLIENT) : null;
+            if (span != null && sql != null) {
+                span.setAttribute("db.statement",
+                        sql.length() > MAX_TRACED_SQL ? sql.substring(0, MAX_TRACED_SQL) : sql);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } catch (Throwable e) {
+                if (span != null) {
+                    span.setError(e);
+                }
+                throw e;
+            } finally {
+                Trace.close(span);
+                QueryProfile profile = QueryProfile.current();
+                if (profile != null) {
+                    profile.statement(sql, System.nanoTime() - start);
+                }
+            }
+        };
+        return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package fr.example.springboot.metrics;
+
+import javax.inject.Named;
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wraps the data source used by JPA in a {@link ProfilingDataSource} unless
+ * both app.profiling.enabled and app.tracing.enabled are false. Only the bean
+ * named dataSource is wrapped, the pools it routes to would count the
+ * statements twice.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class ProfilingDataSourcePostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private boolean enabled;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        enabled = environment.getProperty("app.profiling.enabled", Boolean.class, true)
+                || environment.getProperty("app.tracing.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (enabled && bean instanceof DataSource && "dataSource".equals(beanName)) {
+            return new ProfilingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+
+}
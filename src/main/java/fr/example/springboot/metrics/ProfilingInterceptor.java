@@ -0,0 +1,28 @@
+package fr.example.springboot.metrics;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the entities loaded by Hibernate in the {@link QueryProfile} of the
+ * current thread. Registered by {@link ProfilingInterceptorPostProcessor}, it
+ * is shared by all the sessions.
+ *
+ * @author Nour LABIHI
+ */
+public class ProfilingInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        QueryProfile profile = QueryProfile.current();
+        if (profile != null) {
+            profile.entityLoaded();
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,31 @@
+package fr.example.springboot.metrics;
+
+import org.hibernate.jpa.AvailableSettings;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+/**
+ * Registers a {@link ProfilingInterceptor} on the entity manager factory,
+ * before it is built. Declared by the profiling configuration only, so that
+ * the interceptor is not called at all when the profiling is disabled.
+ *
+ * @author Nour LABIHI
+ */
+public class ProfilingInterceptorPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+            ((LocalContainerEntityManagerFactoryBean) bean).getJpaPropertyMap().put(AvailableSettings.INTERCEPTOR,
+                    new ProfilingInterceptor());
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+}
@@ -0,0 +1,254 @@
+package fr.example.springboot.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Statements, their time and the entity loads of one request, filled by
+ * {@link ProfilingDataSource} and {@link ProfilingInterceptor} on the thread
+ * of the request and broken down by service method by
+ * {@link ServiceProfilingInterceptor}.
+ *
+ * A profile is only touched by the thread which started it, it is not
+ * thread-safe.
+ *
+ * @author Nour LABIHI
+ */
+public final class QueryProfile {
+
+    private static final ThreadLocal<QueryProfile> CURRENT = new ThreadLocal<>();
+
+    /**
+     * distinct statement shapes kept per request, the others are only counted
+     */
+    private static final int MAX_SHAPES = 100;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final String name;
+
+    private final long start = System.nanoTime();
+
+    private int statements;
+
+    private long statementNanos;
+
+    private int entityLoads;
+
+    private final Map<String, Shape> shapes = new LinkedHashMap<>();
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    private final Map<String, MethodProfile> methods = new LinkedHashMap<>();
+
+    private QueryProfile(String name) {
+        this.name = name;
+    }
+
+    /**
+     * starts profiling the current thread.
+     */
+    static QueryProfile start(String name) {
+        QueryProfile profile = new QueryProfile(name);
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the profile of the current thread, or null if it is not profiled
+     */
+    static QueryProfile current() {
+        return CURRENT.get();
+    }
+
+    void statement(String sql, long nanos) {
+        statements++;
+        statementNanos += nanos;
+
+        String shape = shape(sql);
+        Shape counted = shapes.get(shape);
+        if (counted == null && shapes.size() < MAX_SHAPES) {
+            counted = new Shape(shape);
+            shapes.put(shape, counted);
+        }
+        if (counted != null) {
+            counted.count++;
+            counted.nanos += nanos;
+        }
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void enter(String method) {
+        frames.push(new Frame(method, statements, statementNanos, entityLoads));
+    }
+
+    /**
+     * closes the innermost method, which is charged with everything done
+     * since it was entered, the nested calls included.
+     */
+    void exit() {
+        Frame frame = frames.pop();
+        MethodProfile method = methods.computeIfAbsent(frame.method, MethodProfile::new);
+        method.calls++;
+        method.statements += statements - frame.statements;
+        method.statementNanos += statementNanos - frame.statementNanos;
+        method.entityLoads += entityLoads - frame.entityLoads;
+        method.nanos += System.nanoTime() - frame.start;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    /**
+     * the statement shapes, most executed first.
+     */
+    public List<Shape> getShapes() {
+        List<Shape> sorted = new ArrayList<>(shapes.values());
+        Collections.sort(sorted, Comparator.comparingInt(Shape::getCount).reversed());
+        return sorted;
+    }
+
+    public Map<String, MethodProfile> getMethods() {
+        return methods;
+    }
+
+    /**
+     * the SQL without its literals and with the IN lists collapsed, so that
+     * the statements differing only by their parameters have the same shape.
+     */
+    static String shape(String sql) {
+        if (sql == null) {
+            return "(batch)";
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return SPACES.matcher(shape).replaceAll(" ").trim();
+    }
+
+    public static final class Shape {
+
+        private final String sql;
+
+        private int count;
+
+        private long nanos;
+
+        private Shape(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    public static final class MethodProfile {
+
+        private final String method;
+
+        private int calls;
+
+        private int statements;
+
+        private long statementNanos;
+
+        private int entityLoads;
+
+        private long nanos;
+
+        private MethodProfile(String method) {
+            this.method = method;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getStatementNanos() {
+            return statementNanos;
+        }
+
+        public int getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    private static final class Frame {
+
+        private final String method;
+
+        private final int statements;
+
+        private final long statementNanos;
+
+        private final int entityLoads;
+
+        private final long start = System.nanoTime();
+
+        private Frame(String method, int statements, long statementNanos, int entityLoads) {
+            this.method = method;
+            this.statements = statements;
+            this.statementNanos = statementNanos;
+            this.entityLoads = entityLoads;
+        }
+    }
+
+}
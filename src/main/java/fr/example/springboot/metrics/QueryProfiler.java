@@ -0,0 +1,195 @@
+package fr.example.springboot.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import fr.example.springboot.web.dto.MethodQueryStatistics;
+
+/**
+ * Profiles the SQL statements of each request and logs the requests which
+ * run too many statements, run the same statement shape too often (the usual
+ * sign of an N+1 select) or take too long, with the offending shapes and the
+ * service methods which ran them.
+ *
+ * The totals of all the requests are kept per service method for the admin
+ * metrics endpoint.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class QueryProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryProfiler.class);
+
+    /**
+     * statement shapes listed in the log of a flagged request
+     */
+    private static final int LOGGED_SHAPES = 5;
+
+    @Value("${app.profiling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.profiling.max-statements:20}")
+    private int maxStatements;
+
+    @Value("${app.profiling.max-repeated-statements:5}")
+    private int maxRepeatedStatements;
+
+    @Value("${app.profiling.max-duration-millis:500}")
+    private long maxDurationMillis;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder statements = new LongAdder();
+
+    private final LongAdder flaggedRequests = new LongAdder();
+
+    private final LongAccumulator maxStatementsPerRequest = new LongAccumulator(Long::max, 0);
+
+    private final ConcurrentMap<String, MethodTotals> methods = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public QueryProfile begin(String name) {
+        return QueryProfile.start(name);
+    }
+
+    public void end(QueryProfile profile) {
+        QueryProfile.stop();
+
+        long elapsedNanos = profile.getElapsedNanos();
+
+        requests.increment();
+        statements.add(profile.getStatements());
+        maxStatementsPerRequest.accumulate(profile.getStatements());
+
+        for (QueryProfile.MethodProfile method : profile.getMethods().values()) {
+            methods.computeIfAbsent(method.getMethod(), m -> new MethodTotals()).add(method);
+        }
+
+        List<QueryProfile.Shape> shapes = profile.getShapes();
+        boolean repeated = !shapes.isEmpty() && shapes.get(0).getCount() > maxRepeatedStatements;
+        boolean tooMany = profile.getStatements() > maxStatements;
+        boolean tooLong = elapsedNanos > TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+
+        if (repeated || tooMany || tooLong) {
+            flaggedRequests.increment();
+            if (log.isWarnEnabled()) {
+                log.warn(report(profile, elapsedNanos, repeated, tooMany, tooLong));
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("{}: {} statements in {}ms, {} entity loads", profile.getName(), profile.getStatements(),
+                    millis(profile.getStatementNanos()), profile.getEntityLoads());
+        }
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getFlaggedRequests() {
+        return flaggedRequests.sum();
+    }
+
+    public long getMaxStatementsPerRequest() {
+        return maxStatementsPerRequest.get();
+    }
+
+    /**
+     * the totals per service method, in name order.
+     */
+    public List<MethodQueryStatistics> methodStatistics() {
+        List<MethodQueryStatistics> result = new ArrayList<>();
+        for (Map.Entry<String, MethodTotals> entry : new TreeMap<>(methods).entrySet()) {
+            MethodTotals totals = entry.getValue();
+
+            MethodQueryStatistics method = new MethodQueryStatistics();
+            method.setMethod(entry.getKey());
+            method.setCalls(totals.calls.sum());
+            method.setStatements(totals.statements.sum());
+            method.setEntityLoads(totals.entityLoads.sum());
+            method.setStatementMillis(millis(totals.statementNanos.sum()));
+            method.setMaxStatements(totals.maxStatements.get());
+            result.add(method);
+        }
+        return result;
+    }
+
+    private String report(QueryProfile profile, long elapsedNanos, boolean repeated, boolean tooMany,
+            boolean tooLong) {
+        StringBuilder report = new StringBuilder();
+        report.append(profile.getName()).append(':');
+        if (repeated) {
+            report.append(" repeated statement (N+1?)");
+        }
+        if (tooMany) {
+            report.append(" too many statements");
+        }
+        if (tooLong) {
+            report.append(" too slow");
+        }
+        report.append(", ").append(profile.getStatements()).append(" statements in ")
+                .append(millis(profile.getStatementNanos())).append("ms of ").append(millis(elapsedNanos))
+                .append("ms, ").append(profile.getEntityLoads()).append(" entity loads");
+
+        List<QueryProfile.Shape> shapes = profile.getShapes();
+        for (QueryProfile.Shape shape : shapes.subList(0, Math.min(LOGGED_SHAPES, shapes.size()))) {
+            report.append("\n  ").append(shape.getCount()).append("x ").append(millis(shape.getNanos()))
+                    .append("ms ").append(shape.getSql());
+        }
+
+        for (QueryProfile.MethodProfile method : profile.getMethods().values()) {
+            report.append("\n  ").append(method.getMethod()).append(": ").append(method.getCalls())
+                    .append(" calls, ").append(method.getStatements()).append(" statements, ")
+                    .append(method.getEntityLoads()).append(" entity loads, ").append(millis(method.getNanos()))
+                    .append("ms");
+        }
+
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000d;
+    }
+
+    private static final class MethodTotals {
+
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder statements = new LongAdder();
+
+        private final LongAdder statementNanos = new LongAdder();
+
+        private final LongAdder entityLoads = new LongAdder();
+
+        private final LongAccumulator maxStatements = new LongAccumulator(Long::max, 0);
+
+        private void add(QueryProfile.MethodProfile method) {
+            calls.add(method.getCalls());
+            statements.add(method.getStatements());
+            statementNanos.add(method.getStatementNanos());
+            entityLoads.add(method.getEntityLoads());
+            maxStatements.accumulate(method.getStatements() / Math.max(1, method.getCalls()));
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+package fr.example.springboot.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Profiles the statements of each request with {@link QueryProfiler}.
+ *
+ * @author Nour LABIHI
+ */
+public class QueryProfilingFilter extends OncePerRequestFilter {
+
+    private final QueryProfiler profiler;
+
+    public QueryProfilingFilter(QueryProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!profiler.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        QueryProfile profile = profiler.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            profiler.end(profile);
+        }
+    }
+
+}
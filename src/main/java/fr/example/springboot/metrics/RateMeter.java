@@ -0,0 +1,43 @@
+package fr.example.springboot.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Events per second over the last minute, counted in a ring of one-second
+ * slots. A slot is reset by the first event of a new second; an event racing
+ * with that reset may be lost, the rate is approximate.
+ *
+ * @author Nour LABIHI
+ */
+class RateMeter {
+
+    private static final int WINDOW_SECONDS = 60;
+
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+
+    private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+
+    void mark(long second) {
+        int slot = (int) Math.floorMod(second, (long) WINDOW_SECONDS);
+        long stamp = seconds.get(slot);
+        if (stamp != second && seconds.compareAndSet(slot, stamp, second)) {
+            counts.set(slot, 0);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    /**
+     * the mean rate of the last full minute, the current second excluded.
+     */
+    double rate(long second) {
+        long total = 0;
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            long age = second - seconds.get(slot);
+            if (age >= 1 && age <= WINDOW_SECONDS) {
+                total += counts.get(slot);
+            }
+        }
+        return (double) total / WINDOW_SECONDS;
+    }
+
+}
@@ -0,0 +1,174 @@
+package fr.example.springboot.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Named;
+
+import fr.example.springboot.web.dto.EndpointMetrics;
+import fr.example.springboot.web.dto.LatencyMetrics;
+
+/**
+ * Latency, rate, errors and concurrency of the requests, per handler method
+ * and status class, recorded by {@link RequestMetricsInterceptor}.
+ *
+ * Recording never locks: the counters are {@link LongAdder}s and striped
+ * {@link LatencyHistogram}s, created once per handler and status class.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class RequestMetrics {
+
+    public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void begin(String handler) {
+        endpoint(handler).inFlight.increment();
+    }
+
+    public void end(String handler, int status, long nanos) {
+        Endpoint endpoint = endpoint(handler);
+        endpoint.inFlight.decrement();
+        endpoint.histogram(status).record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        endpoint.rate.mark(currentSecond());
+    }
+
+    public List<EndpointMetrics> snapshot() {
+        long second = currentSecond();
+
+        List<EndpointMetrics> result = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint endpoint = entry.getValue();
+
+            EndpointMetrics metrics = new EndpointMetrics();
+            metrics.setHandler(entry.getKey());
+            metrics.setInFlight(endpoint.inFlight.sum());
+            metrics.setRatePerSecond(endpoint.rate.rate(second));
+
+            long requests = 0;
+            for (int i = 1; i < Endpoint.STATUS_CLASSES; i++) {
+                LatencyHistogram histogram = endpoint.statuses.get(i);
+                if (histogram == null) {
+                    continue;
+                }
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                requests += snapshot.getCount();
+                if (i == 5) {
+                    metrics.setErrors(snapshot.getCount());
+                }
+                metrics.getLatencies().add(latency(i + "xx", snapshot));
+            }
+            metrics.setRequests(requests);
+
+            result.add(metrics);
+        }
+        return result;
+    }
+
+    /**
+     * the metrics in the Prometheus text exposition format, the latencies as
+     * summaries in seconds.
+     */
+    public String prometheus() {
+        StringBuilder in = new StringBuilder();
+        StringBuilder latency = new StringBuilder();
+
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            String handler = entry.getKey();
+            Endpoint endpoint = entry.getValue();
+
+            in.append("http_requests_in_flight{handler=\"").append(handler).append("\"} ")
+                    .append(endpoint.inFlight.sum()).append('\n');
+
+            for (int i = 1; i < Endpoint.STATUS_CLASSES; i++) {
+                LatencyHistogram histogram = endpoint.statuses.get(i);
+                if (histogram == null) {
+                    continue;
+                }
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+                String labels = "handler=\"" + handler + "\",status=\"" + i + "xx\"";
+                for (double quantile : QUANTILES) {
+                    latency.append("http_request_duration_seconds{").append(labels)
+                            .append(",quantile=\"").append(quantile).append("\"} ")
+                            .append(seconds(snapshot.getValueAtPercentile(quantile * 100))).append('\n');
+                }
+                latency.append("http_request_duration_seconds_sum{").append(labels).append("} ")
+                        .append(seconds(snapshot.getSum())).append('\n');
+                latency.append("http_request_duration_seconds_count{").append(labels).append("} ")
+                        .append(snapshot.getCount()).append('\n');
+            }
+        }
+
+        return "# HELP http_requests_in_flight requests being handled\n"
+                + "# TYPE http_requests_in_flight gauge\n"
+                + in
+                + "# HELP http_request_duration_seconds request latency per handler and status class\n"
+                + "# TYPE http_request_duration_seconds summary\n"
+                + latency;
+    }
+
+    private Endpoint endpoint(String handler) {
+        Endpoint endpoint = endpoints.get(handler);
+        return endpoint != null ? endpoint : endpoints.computeIfAbsent(handler, h -> new Endpoint());
+    }
+
+    private static LatencyMetrics latency(String status, LatencyHistogram.Snapshot snapshot) {
+        LatencyMetrics latency = new LatencyMetrics();
+        latency.setStatus(status);
+        latency.setCount(snapshot.getCount());
+        latency.setMean(snapshot.getMean() / 1000);
+        latency.setP50(millis(snapshot.getValueAtPercentile(50)));
+        latency.setP99(millis(snapshot.getValueAtPercentile(99)));
+        latency.setP999(millis(snapshot.getValueAtPercentile(99.9)));
+        latency.setMax(millis(snapshot.getMax()));
+        return latency;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000d;
+    }
+
+    private static double seconds(long micros) {
+        return micros / 1000000d;
+    }
+
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+
+    private static final class Endpoint {
+
+        /**
+         * 1xx to 5xx, by the first digit of the status
+         */
+        private static final int STATUS_CLASSES = 6;
+
+        private final LongAdder inFlight = new LongAdder();
+
+        private final RateMeter rate = new RateMeter();
+
+        private final AtomicReferenceArray<LatencyHistogram> statuses = new AtomicReferenceArray<>(STATUS_CLASSES);
+
+        private LatencyHistogram histogram(int status) {
+            int index = Math.max(1, Math.min(status / 100, STATUS_CLASSES - 1));
+            LatencyHistogram histogram = statuses.get(index);
+            if (histogram == null) {
+                statuses.compareAndSet(index, null, new LatencyHistogram());
+                histogram = statuses.get(index);
+            }
+            return histogram;
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package fr.example.springboot.metrics;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Times the requests handled by a controller method and records them in
+ * {@link RequestMetrics} under "Controller.method", with the final status.
+ *
+ * @author Nour LABIHI
+ */
+public class RequestMetricsInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String HANDLER = RequestMetricsInterceptor.class.getName() + ".handler";
+
+    private static final String START = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final RequestMetrics metrics;
+
+    private final ConcurrentMap<Method, String> names = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            String name = names.computeIfAbsent(method.getMethod(),
+                    m -> method.getBeanType().getSimpleName() + "." + m.getName());
+
+            request.setAttribute(HANDLER, name);
+            request.setAttribute(START, System.nanoTime());
+            metrics.begin(name);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        String name = (String) request.getAttribute(HANDLER);
+        if (name == null) {
+            return;
+        }
+
+        int status = response.getStatus();
+        if (ex != null && status < 400) {
+            // not resolved by the exception handlers, the container answers 500
+            status = 500;
+        }
+
+        metrics.end(name, status, System.nanoTime() - (Long) request.getAttribute(START));
+    }
+
+}
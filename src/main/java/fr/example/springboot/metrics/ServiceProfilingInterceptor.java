@@ -0,0 +1,30 @@
+package fr.example.springboot.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Charges the statements of a profiled request to the service methods which
+ * ran them.
+ *
+ * @author Nour LABIHI
+ */
+public class ServiceProfilingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        QueryProfile profile = QueryProfile.current();
+        if (profile == null) {
+            return invocation.proceed();
+        }
+
+        profile.enter(invocation.getMethod().getDeclaringClass().getSimpleName() + "."
+                + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            profile.exit();
+        }
+    }
+
+}
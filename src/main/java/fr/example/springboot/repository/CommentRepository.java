@@ -1,19 +1,106 @@
 package fr.example.springboot.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import fr.example.springboot.domain.Comment;
 import fr.example.springboot.domain.Post;
+import fr.example.springboot.web.dto.CommentDetails;
 
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 	
+	@EntityGraph(Comment.WITH_AUTHOR)
 	public List<Comment> findByPost(Post post);
 
+    @EntityGraph(Comment.WITH_AUTHOR)
     public Page<Comment> findByPostId(Long id, Pageable page);
-	
+
+    /**
+     * comments of a post as {@link CommentDetails}, selecting only the
+     * comment columns and the author's id, username and name. Returned as a
+     * slice, the total is counted by {@link #countByPostId} only when needed.
+     */
+    @Query("select new fr.example.springboot.web.dto.CommentDetails("
+            + "c.id, c.version, c.content, c.createdDate, u.id, u.username, u.name) "
+            + "from Comment c left join c.createdBy u "
+            + "where c.post.id = :postId")
+    public Slice<CommentDetails> findDetailsByPostId(@Param("postId") Long postId, Pageable page);
+
+    @Query("select count(c) from Comment c where c.post.id = :postId")
+    public long countByPostId(@Param("postId") Long postId);
+
+    /**
+     * first rows of the cursor pagination of the comments of a post, the
+     * pageable only gives the limit and the (createdDate, id) order.
+     */
+    @Query("select new fr.example.springboot.web.dto.CommentDetails("
+            + "c.id, c.version, c.content, c.createdDate, u.id, u.username, u.name) "
+            + "from Comment c left join c.createdBy u "
+            + "where c.post.id = :postId")
+    public List<CommentDetails> seekDetailsByPostId(@Param("postId") Long postId, Pageable page);
+
+    /**
+     * comments of a post strictly older than the (createdDate, id) cursor.
+     */
+    @Query("select new fr.example.springboot.web.dto.CommentDetails("
+            + "c.id, c.version, c.content, c.createdDate, u.id, u.username, u.name) "
+            + "from Comment c left join c.createdBy u "
+            + "where c.post.id = :postId "
+            + "and (c.createdDate < :createdDate or (c.createdDate = :createdDate and c.id < :id))")
+    public List<CommentDetails> seekDetailsByPostIdOlderThan(
+            @Param("postId") Long postId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Long id,
+            Pageable page);
+
+    /**
+     * comments of a post strictly newer than the (createdDate, id) cursor.
+     */
+    @Query("select new fr.example.springboot.web.dto.CommentDetails("
+            + "c.id, c.version, c.content, c.createdDate, u.id, u.username, u.name) "
+            + "from Comment c left join c.createdBy u "
+            + "where c.post.id = :postId "
+            + "and (c.createdDate > :createdDate or (c.createdDate = :createdDate and c.id > :id))")
+    public List<CommentDetails> seekDetailsByPostIdNewerThan(
+            @Param("postId") Long postId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Long id,
+            Pageable page);
+
+    /**
+     * the id of the post of the comment, or null if the comment does not
+     * exist.
+     */
+    @Query("select c.post.id from Comment c where c.id = :id")
+    public Long findPostIdById(@Param("id") Long id);
+
+    /**
+     * deletes the comments in one statement, without loading them.
+     *
+     * @return the number of deleted comments
+     */
+    @Modifying
+    @Query("delete from Comment c where c.id in :ids")
+    public int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * deletes all the comments of the posts in one statement.
+     *
+     * @return the number of deleted comments
+     */
+    @Modifying
+    @Query("delete from Comment c where c.post.id in :postIds")
+    public int deleteByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
 }
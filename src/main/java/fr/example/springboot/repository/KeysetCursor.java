@@ -0,0 +1,79 @@
+package fr.example.springboot.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Position of a row in the (createdDate, id) order used by the cursor
+ * pagination. Clients only see it as an opaque token.
+ *
+ * @author Nour LABIHI
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdDate;
+
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime createdDate, Long id) {
+        this.createdDate = createdDate;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(LocalDateTime createdDate, Long id) {
+        Assert.notNull(createdDate, "cursor createdDate can not be null");
+        Assert.notNull(id, "cursor id can not be null");
+        return new KeysetCursor(createdDate, id);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by
+     * {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int index = value.lastIndexOf(SEPARATOR);
+            return of(LocalDateTime.parse(value.substring(0, index)), Long.valueOf(value.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid cursor:" + token, e);
+        }
+    }
+
+    /**
+     * first page of the seek query, newest first when reading forward and
+     * oldest first when reading backward from a cursor.
+     */
+    public static Pageable pageRequest(int size, boolean backward) {
+        Sort.Direction direction = backward ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return new PageRequest(0, size, new Sort(direction, "createdDate").and(new Sort(direction, "id")));
+    }
+
+    public String encode() {
+        String value = createdDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{" + "createdDate=" + createdDate + ", id=" + id + '}';
+    }
+
+}
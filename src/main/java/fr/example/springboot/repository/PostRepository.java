@@ -1,10 +1,89 @@
 package fr.example.springboot.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import fr.example.springboot.domain.Post;
+import fr.example.springboot.repository.support.ExtendedJpaRepository;
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostVersion;
+
+public interface PostRepository extends ExtendedJpaRepository<Post, Long> {
+
+    /**
+     * the post with its authors, in one select.
+     */
+    @EntityGraph(Post.WITH_AUTHORS)
+    Post findById(Long id);
+
+    /**
+     * same filter as {@link PostSpecifications#filterByKeywordAndStatus}, but
+     * selects the {@link PostDetails} columns only instead of hydrating the
+     * posts and their authors. Returned as a slice, the total is counted by
+     * {@link #countByKeywordAndStatus} only when it is needed.
+     *
+     * @param keyword the LIKE pattern, or null to skip the keyword filter
+     * @param status the status, or null to skip the status filter
+     */
+    @Query(value = "select new fr.example.springboot.web.dto.PostDetails("
+            + "p.id, p.version, p.title, p.content, p.status, p.createdDate, p.lastModifiedDate, p.commentCount, "
+            + "c.id, c.username, c.name, m.id, m.username, m.name) "
+            + "from Post p left join p.createdBy c left join p.lastModifiedBy m "
+            + "where (:status is null or p.status = :status) "
+            + "and (:keyword is null or p.title like :keyword or p.content like :keyword)")
+    Slice<PostDetails> findDetailsByKeywordAndStatus(
+            @Param("keyword") String keyword,
+            @Param("status") Post.Status status,
+            Pageable page);
+
+    /**
+     * the {@link PostDetails} of the given posts, in no particular order.
+     */
+    @Query("select new fr.example.springboot.web.dto.PostDetails("
+            + "p.id, p.version, p.title, p.content, p.status, p.createdDate, p.lastModifiedDate, p.commentCount, "
+            + "c.id, c.username, c.name, m.id, m.username, m.name) "
+            + "from Post p left join p.createdBy c left join p.lastModifiedBy m "
+            + "where p.id in :ids")
+    List<PostDetails> findDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * id, title, content, status and createdDate of the posts after the given
+     * id, in id order. Used to load the search index in batches.
+     */
+    @Query("select p.id, p.title, p.content, p.status, p.createdDate from Post p "
+            + "where p.id > :afterId order by p.id")
+    List<Object[]> findIndexRowsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    /**
+     * the version, the comment count and the author versions of the post, or
+     * null if it does not exist. Answers the conditional GETs without loading the post.
+     */
+    @Query("select new fr.example.springboot.web.dto.PostVersion(p.id, p.version, p.commentCount, c.version, m.version) "
+            + "from Post p left join p.createdBy c left join p.lastModifiedBy m where p.id = :id")
+    PostVersion findVersionById(@Param("id") Long id);
+
+    @Query("select count(p) from Post p "
+            + "where (:status is null or p.status = :status) "
+            + "and (:keyword is null or p.title like :keyword or p.content like :keyword)")
+    long countByKeywordAndStatus(
+            @Param("keyword") String keyword,
+            @Param("status") Post.Status status);
 
-public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificationExecutor<Post>{
+    /**
+     * deletes the posts in one statement, without loading them. Their
+     * comments must be deleted first.
+     *
+     * @return the number of deleted posts
+     */
+    @Modifying
+    @Query("delete from Post p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
 }
@@ -2,6 +2,7 @@ package fr.example.springboot.repository;
 
 import fr.example.springboot.domain.Post;
 import fr.example.springboot.domain.Post_;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -38,4 +39,44 @@ public class PostSpecifications {
         };
     }
 
+    /**
+     * the posts of the given status created before the given date, each
+     * criterion skipped when null.
+     */
+    public static Specification<Post> filterByStatusAndCreatedBefore(
+            final Post.Status status,//
+            final LocalDateTime createdBefore) {
+        return (Root<Post> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get(Post_.status), status));
+            }
+
+            if (createdBefore != null) {
+                predicates.add(cb.lessThan(root.get(Post_.createdDate), createdBefore));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[predicates.size()]));
+        };
+    }
+
+    /**
+     * seek predicate of the cursor pagination, the posts strictly older (or
+     * newer) than the cursor in the (createdDate, id) order.
+     */
+    public static Specification<Post> seek(final KeysetCursor cursor, final boolean older) {
+        return (Root<Post> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
+            if (older) {
+                return cb.or(
+                        cb.lessThan(root.get(Post_.createdDate), cursor.getCreatedDate()),
+                        cb.and(cb.equal(root.get(Post_.createdDate), cursor.getCreatedDate()),
+                                cb.lessThan(root.get(Post_.id), cursor.getId())));
+            }
+            return cb.or(
+                    cb.greaterThan(root.get(Post_.createdDate), cursor.getCreatedDate()),
+                    cb.and(cb.equal(root.get(Post_.createdDate), cursor.getCreatedDate()),
+                            cb.greaterThan(root.get(Post_.id), cursor.getId())));
+        };
+    }
+
 }
@@ -1,19 +1,36 @@
 package fr.example.springboot.repository;
 
 import java.io.Serializable;
+import java.util.List;
 
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import fr.example.springboot.domain.User;
+import fr.example.springboot.repository.support.ExtendedJpaRepository;
 
 /**
  * @author Nour LABIHI
  *
  */
 
-public interface UserRepository extends JpaRepository<User, Serializable>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends ExtendedJpaRepository<User, Serializable> {
 
 	User findByUsername(String userName);
+
+	/**
+	 * id, name, username, role and createdDate of the users after the given
+	 * id, in id order. Used to load the search index in batches.
+	 */
+	@Query("select u.id, u.name, u.username, u.role, u.createdDate from User u "
+			+ "where u.id > :afterId order by u.id")
+	List<Object[]> findIndexRowsAfter(@Param("afterId") Long afterId, Pageable page);
+
+	/**
+	 * the version of the user, or null if it does not exist.
+	 */
+	@Query("select u.version from User u where u.id = :id")
+	Long findVersionById(@Param("id") Long id);
 	
 }
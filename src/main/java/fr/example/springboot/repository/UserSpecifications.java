@@ -48,4 +48,23 @@ public class UserSpecifications {
         };
     }
 
+    /**
+     * seek predicate of the cursor pagination, the users strictly older (or
+     * newer) than the cursor in the (createdDate, id) order.
+     */
+    public static Specification<User> seek(final KeysetCursor cursor, final boolean older) {
+        return (Root<User> root, CriteriaQuery<?> query, CriteriaBuilder cb) -> {
+            if (older) {
+                return cb.or(
+                        cb.lessThan(root.get(User_.createdDate), cursor.getCreatedDate()),
+                        cb.and(cb.equal(root.get(User_.createdDate), cursor.getCreatedDate()),
+                                cb.lessThan(root.get(User_.id), cursor.getId())));
+            }
+            return cb.or(
+                    cb.greaterThan(root.get(User_.createdDate), cursor.getCreatedDate()),
+                    cb.and(cb.equal(root.get(User_.createdDate), cursor.getCreatedDate()),
+                            cb.greaterThan(root.get(User_.id), cursor.getId())));
+        };
+    }
+
 }
@@ -0,0 +1,52 @@
+package fr.example.springboot.repository.support;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Base interface of the repositories, adds the specification queries which
+ * are not backed by a count query.
+ *
+ * @author Nour LABIHI
+ */
+@NoRepositoryBean
+public interface ExtendedJpaRepository<T, ID extends Serializable>
+        extends JpaRepository<T, ID>, JpaSpecificationExecutor<T> {
+
+    /**
+     * fetches one more row than the page size to know whether there is a next
+     * page, without running a count query.
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+
+    /**
+     * same as {@link #findSlice(Specification, Pageable)}, fetching the
+     * associations of the given named entity graph in the same select.
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable, String entityGraph);
+
+    /**
+     * the ids of the entities matching the specification, selecting the id
+     * column only.
+     */
+    List<ID> findIds(Specification<T> spec);
+
+    /**
+     * updates the given attributes of the entity in one statement, without
+     * loading it, if it is still at the given version; the version is then
+     * incremented. Only the given columns are written.
+     *
+     * @param changes the new values by attribute name
+     * @return false if the entity does not exist or is at another version
+     */
+    boolean patch(ID id, Long version, Map<String, Object> changes);
+
+}
@@ -0,0 +1,32 @@
+package fr.example.springboot.repository.support;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the read-only transactions to the replica pool and everything else,
+ * including the work done outside of a transaction, to the primary pool.
+ *
+ * The transaction manager takes its connection before marking the transaction
+ * read-only, so this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which only asks for the connection at
+ * the first statement.
+ *
+ * A replica lags behind the primary: a read-only transaction may not see a
+ * write committed just before.
+ *
+ * @author Nour LABIHI
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+}
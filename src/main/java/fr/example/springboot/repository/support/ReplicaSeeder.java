@@ -0,0 +1,46 @@
+package fr.example.springboot.repository.support;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Copies the schema and the rows of an H2 primary database into an H2 replica
+ * on startup, so that the read-only routing can be run locally on two
+ * databases. H2 does not replicate: the replica is a snapshot of the primary
+ * taken once, which makes every later write visible on the primary only.
+ *
+ * @author Nour LABIHI
+ */
+public class ReplicaSeeder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSeeder.class);
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    public ReplicaSeeder(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    @PostConstruct
+    public void seed() {
+        List<String> script = new JdbcTemplate(primary).queryForList("SCRIPT", String.class);
+
+        JdbcTemplate target = new JdbcTemplate(replica);
+        target.execute("DROP ALL OBJECTS");
+        for (String statement : script) {
+            target.execute(statement);
+        }
+
+        log.info("seeded the replica with statements @{}", script.size());
+    }
+
+}
@@ -0,0 +1,118 @@
+package fr.example.springboot.repository.support;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.util.Assert;
+
+/**
+ * Default implementation of {@link ExtendedJpaRepository}, registered as the
+ * repository base class in {@link fr.example.springboot.Application}.
+ *
+ * @author Nour LABIHI
+ */
+public class SimpleExtendedJpaRepository<T, ID extends Serializable> extends SimpleJpaRepository<T, ID>
+        implements ExtendedJpaRepository<T, ID> {
+
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+
+    private final EntityManager entityManager;
+
+    public SimpleExtendedJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable) {
+        return findSlice(getQuery(spec, pageable.getSort()), pageable);
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable, String entityGraph) {
+        TypedQuery<T> query = getQuery(spec, pageable.getSort());
+        query.setHint(FETCH_GRAPH, entityManager.getEntityGraph(entityGraph));
+        return findSlice(query, pageable);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ID> findIds(Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = cb.createQuery();
+        Root<T> root = query.from(getDomainClass());
+        query.select(root.get(entityInformation.getIdAttribute()));
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return (List<ID>) entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public boolean patch(ID id, Long version, Map<String, Object> changes) {
+        Assert.notNull(id, "id can not be null");
+        Assert.notNull(version, "version can not be null");
+        Assert.notEmpty(changes, "nothing to update");
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(getDomainClass());
+        Root<T> root = update.from(getDomainClass());
+
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            update.set(change.getKey(), change.getValue());
+        }
+
+        Path<Long> versionPath = root.get(versionAttribute().getName());
+        update.set(versionPath, cb.sum(versionPath, 1L));
+        update.where(cb.equal(root.get(entityInformation.getIdAttribute()), id), cb.equal(versionPath, version));
+
+        return entityManager.createQuery(update).executeUpdate() == 1;
+    }
+
+    private SingularAttribute<? super T, ?> versionAttribute() {
+        for (SingularAttribute<? super T, ?> attribute : entityManager.getMetamodel().entity(getDomainClass())
+                .getSingularAttributes()) {
+            if (attribute.isVersion()) {
+                return attribute;
+            }
+        }
+        throw new IllegalStateException(getDomainClass().getName() + " has no version attribute");
+    }
+
+    private Slice<T> findSlice(TypedQuery<T> query, Pageable pageable) {
+        query.setFirstResult(pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<T> content = query.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+}
@@ -0,0 +1,332 @@
+package fr.example.springboot.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.repository.PostRepository;
+
+/**
+ * In-memory inverted index over the title and content of the posts, used by
+ * the keyword search instead of a <code>LIKE '%q%'</code> table scan.
+ *
+ * The text is split into lower-cased words. A search matches the posts which
+ * contain, for every word of the query, a word starting with it. Results are
+ * ranked by relevance (tf-idf) or by creation date.
+ *
+ * The index is rebuilt when the context starts and kept up to date by
+ * {@link fr.example.springboot.service.BlogService} after each commit.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class PostSearchIndex implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    /**
+     * sort property asking for the relevance order
+     */
+    public static final String RELEVANCE = "relevance";
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Inject
+    private PostRepository postRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    private final AtomicBoolean ready = new AtomicBoolean();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getParent() == null && !ready.get()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * reloads the whole index from the posts table.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+
+            Long afterId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = postRepository.findIndexRowsAfter(afterId, new PageRequest(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    afterId = (Long) row[0];
+                    doAdd(afterId, (String) row[1], (String) row[2], (Post.Status) row[3], (LocalDateTime) row[4]);
+                }
+            } while (rows.size() == REBUILD_BATCH_SIZE);
+
+            ready.set(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("post search index rebuilt with {} posts, {} terms in {}ms",
+                    documents.size(), postings.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * whether the index can serve this order, relevance or creation date.
+     */
+    public static boolean supports(Sort sort) {
+        if (sort == null) {
+            return true;
+        }
+        for (Sort.Order order : sort) {
+            if (!RELEVANCE.equals(order.getProperty()) && !"createdDate".equals(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * adds or replaces a post.
+     */
+    public void add(Long id, String title, String content, Post.Status status, LocalDateTime createdDate) {
+        lock.writeLock().lock();
+        try {
+            doAdd(id, title, content, status, createdDate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * reloads one post from the database, after it was updated in place
+     * without being loaded. Runs in its own read-write transaction so that it
+     * reads the primary database, a replica may not have the update yet.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh(Long id) {
+        List<Object[]> rows = postRepository.findIndexRowsAfter(id - 1, new PageRequest(0, 1));
+        if (rows.isEmpty() || !id.equals(rows.get(0)[0])) {
+            remove(id);
+            return;
+        }
+
+        Object[] row = rows.get(0);
+        add(id, (String) row[1], (String) row[2], (Post.Status) row[3], (LocalDateTime) row[4]);
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            doRemove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the page of the matching post ids, or null if the keyword has no
+     * word to search for
+     */
+    public Page<Long> search(String keyword, Post.Status status, Pageable page) {
+        List<String> words = tokenize(keyword);
+        if (words.isEmpty()) {
+            return null;
+        }
+
+        List<Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = match(words, status);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(comparator(page.getSort()));
+
+        int from = Math.min(page.getOffset(), hits.size());
+        int to = Math.min(from + page.getPageSize(), hits.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            ids.add(hit.id);
+        }
+
+        return new PageImpl<>(ids, page, hits.size());
+    }
+
+    private List<Hit> match(List<String> words, Post.Status status) {
+        Map<Long, Double> scores = null;
+        int total = documents.size();
+
+        for (String word : words) {
+            Map<Long, Double> wordScores = new HashMap<>();
+            for (Map<Long, Integer> docs : postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                double idf = Math.log(1 + (double) total / docs.size());
+                for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                    if (scores != null && !scores.containsKey(posting.getKey())) {
+                        continue;
+                    }
+                    wordScores.merge(posting.getKey(), posting.getValue() * idf, Math::max);
+                }
+            }
+
+            if (scores != null) {
+                for (Map.Entry<Long, Double> score : wordScores.entrySet()) {
+                    score.setValue(score.getValue() + scores.get(score.getKey()));
+                }
+            }
+            scores = wordScores;
+
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Double> score : scores.entrySet()) {
+            Document doc = documents.get(score.getKey());
+            if (status == null || status == doc.status) {
+                hits.add(new Hit(score.getKey(), score.getValue() / doc.length, doc.createdDate));
+            }
+        }
+        return hits;
+    }
+
+    private static Comparator<Hit> comparator(Sort sort) {
+        Sort.Order byDate = sort == null ? null : sort.getOrderFor("createdDate");
+        Sort.Order byRelevance = sort == null ? null : sort.getOrderFor(RELEVANCE);
+
+        Comparator<Hit> newestFirst = Comparator.comparing((Hit h) -> h.createdDate,
+                Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                .thenComparing(h -> h.id, Comparator.reverseOrder());
+
+        if (byDate != null && (byRelevance == null || sort.iterator().next() == byDate)) {
+            return byDate.isAscending() ? newestFirst.reversed() : newestFirst;
+        }
+        return Comparator.comparingDouble((Hit h) -> h.score).reversed().thenComparing(newestFirst);
+    }
+
+    private void doAdd(Long id, String title, String content, Post.Status status, LocalDateTime createdDate) {
+        doRemove(id);
+
+        Map<String, Integer> terms = new HashMap<>();
+        int length = 0;
+        for (String text : new String[]{title, content}) {
+            for (String word : tokenize(text)) {
+                terms.merge(word, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(id, term.getValue());
+        }
+
+        documents.put(id, new Document(status, createdDate, terms.keySet(), Math.max(1, length)));
+    }
+
+    private void doRemove(Long id) {
+        Document doc = documents.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(id);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static final class Document {
+
+        private final Post.Status status;
+
+        private final LocalDateTime createdDate;
+
+        private final Iterable<String> terms;
+
+        private final int length;
+
+        private Document(Post.Status status, LocalDateTime createdDate, Iterable<String> terms, int length) {
+            this.status = status;
+            this.createdDate = createdDate;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static final class Hit {
+
+        private final Long id;
+
+        private final double score;
+
+        private final LocalDateTime createdDate;
+
+        private Hit(Long id, double score, LocalDateTime createdDate) {
+            this.id = id;
+            this.score = score;
+            this.createdDate = createdDate;
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+package fr.example.springboot.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import fr.example.springboot.repository.UserRepository;
+
+/**
+ * In-memory trigram index over the name and username of the users, used by
+ * the admin user search instead of a <code>LIKE '%q%'</code> table scan.
+ *
+ * A query of three characters or more intersects the posting lists of its
+ * trigrams, then checks the remaining candidates; shorter queries scan the
+ * indexed users in memory. Matching ignores case and the role filter is
+ * applied on the indexed role.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class UserSearchIndex implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Inject
+    private UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+
+    private final AtomicBoolean ready = new AtomicBoolean();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getParent() == null && !ready.get()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * reloads the whole index from the user table.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            trigrams.clear();
+
+            Long afterId = 0L;
+            List<Object[]> rows;
+            do {
+                rows = userRepository.findIndexRowsAfter(afterId, new PageRequest(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    afterId = (Long) row[0];
+                    doAdd(afterId, (String) row[1], (String) row[2], (String) row[3], (LocalDateTime) row[4]);
+                }
+            } while (rows.size() == REBUILD_BATCH_SIZE);
+
+            ready.set(true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("user search index rebuilt with {} users, {} trigrams in {}ms",
+                    documents.size(), trigrams.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * whether the index can serve this order, only the creation date is kept.
+     */
+    public static boolean supports(Sort sort) {
+        if (sort == null) {
+            return true;
+        }
+        for (Sort.Order order : sort) {
+            if (!"createdDate".equals(order.getProperty())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * adds or replaces a user.
+     */
+    public void add(Long id, String name, String username, String role, LocalDateTime createdDate) {
+        lock.writeLock().lock();
+        try {
+            doAdd(id, name, username, role, createdDate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * reloads one user from the database, after it was updated in place
+     * without being loaded. Runs in its own read-write transaction so that it
+     * reads the primary database, a replica may not have the update yet.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh(Long id) {
+        List<Object[]> rows = userRepository.findIndexRowsAfter(id - 1, new PageRequest(0, 1));
+        if (rows.isEmpty() || !id.equals(rows.get(0)[0])) {
+            remove(id);
+            return;
+        }
+
+        Object[] row = rows.get(0);
+        add(id, (String) row[1], (String) row[2], (String) row[3], (LocalDateTime) row[4]);
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            doRemove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param keyword the searched part of the name or username
+     * @param role the role, null or ALL for any role
+     * @return the page of the matching user ids
+     */
+    public Page<Long> search(String keyword, String role, Pageable page) {
+        String query = keyword.toLowerCase(Locale.ROOT);
+        String roleFilter = StringUtils.hasText(role) && !"ALL".equals(role) ? role : null;
+
+        List<Document> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(query)) {
+                Document doc = documents.get(id);
+                if (doc.matches(query) && (roleFilter == null || roleFilter.equals(doc.role))) {
+                    hits.add(doc);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Sort.Order byDate = page.getSort() == null ? null : page.getSort().getOrderFor("createdDate");
+        Comparator<Document> newestFirst = Comparator.comparing((Document d) -> d.createdDate,
+                Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                .thenComparing(d -> d.id, Comparator.reverseOrder());
+        hits.sort(byDate != null && byDate.isAscending() ? newestFirst.reversed() : newestFirst);
+
+        int from = Math.min(page.getOffset(), hits.size());
+        int to = Math.min(from + page.getPageSize(), hits.size());
+        List<Long> ids = new ArrayList<>(to - from);
+        for (Document doc : hits.subList(from, to)) {
+            ids.add(doc.id);
+        }
+
+        return new PageImpl<>(ids, page, hits.size());
+    }
+
+    /**
+     * the ids which may match, from the smallest posting list and intersected
+     * with the others.
+     */
+    private Collection<Long> candidates(String query) {
+        if (query.length() < 3) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String trigram : trigrams(query)) {
+            Set<Long> ids = trigrams.get(trigram);
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void doAdd(Long id, String name, String username, String role, LocalDateTime createdDate) {
+        doRemove(id);
+
+        Document doc = new Document(id, lower(name), lower(username), role, createdDate);
+        documents.put(id, doc);
+        for (String trigram : doc.trigrams()) {
+            trigrams.computeIfAbsent(trigram, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void doRemove(Long id) {
+        Document doc = documents.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String trigram : doc.trigrams()) {
+            Set<Long> ids = trigrams.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            result.add(value.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private static final class Document {
+
+        private final Long id;
+
+        private final String name;
+
+        private final String username;
+
+        private final String role;
+
+        private final LocalDateTime createdDate;
+
+        private Document(Long id, String name, String username, String role, LocalDateTime createdDate) {
+            this.id = id;
+            this.name = name;
+            this.username = username;
+            this.role = role;
+            this.createdDate = createdDate;
+        }
+
+        private boolean matches(String query) {
+            return name.contains(query) || username.contains(query);
+        }
+
+        private Set<String> trigrams() {
+            Set<String> result = UserSearchIndex.trigrams(name);
+            result.addAll(UserSearchIndex.trigrams(username));
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package fr.example.springboot.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+
+import fr.example.springboot.cache.BoundedCache;
+import fr.example.springboot.cache.Generations;
+
+/**
+ * Remembers the credentials that were verified recently, so that a stateless
+ * client sending the same Basic header on every call pays for BCrypt once per
+ * TTL instead of once per request.
+ *
+ * Entries are keyed by an HMAC-SHA256 of the username and password under a
+ * secret generated at startup; the password itself is never kept. An
+ * authentication verified before a change of the user is not cached once the
+ * change has evicted the user, see {@link Generations}.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class AuthenticationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationCache.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final BoundedCache<String, Authentication> authentications;
+
+    private final Generations<Long> generations = new Generations<>();
+
+    private final SecretKeySpec secret;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    @Inject
+    public AuthenticationCache(@Value("${app.security.auth-cache.max-size:10000}") int maxSize,
+            @Value("${app.security.auth-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.authentications = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, ALGORITHM);
+
+        log.debug("authentication cache of {} entries, ttl {}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * @return the authentication verified earlier for these credentials, or
+     * null if they have not been verified within the TTL
+     */
+    public Authentication get(String username, String password) {
+        return authentications.get(keyOf(username, password));
+    }
+
+    /**
+     * the generation to take before verifying credentials, and to give back
+     * to {@link #put}
+     */
+    public long generation() {
+        return generations.current();
+    }
+
+    /**
+     * caches the verified authentication, unless its user was evicted since
+     * the given generation was taken.
+     */
+    public void put(String username, String password, Authentication authentication, long generation) {
+        Long userId = userIdOf(authentication);
+        if (userId != null && generations.changedSince(userId, generation)) {
+            log.debug("user @{} changed during the verification, not cached", userId);
+            return;
+        }
+
+        String key = keyOf(username, password);
+        authentications.put(key, authentication);
+
+        // an eviction between the check and the put may have missed the entry
+        if (userId != null && generations.changedSince(userId, generation)) {
+            authentications.remove(key);
+        }
+    }
+
+    /**
+     * forgets every verified credential of the given user, to be called when
+     * the password, the role or the account itself changes.
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        log.debug("evict cached authentications of user @{}", userId);
+
+        generations.bump(userId);
+        authentications.removeIf((key, auth) -> userId.equals(userIdOf(auth)));
+    }
+
+    public void clear() {
+        authentications.clear();
+    }
+
+    public BoundedCache<String, Authentication> getAuthentications() {
+        return authentications;
+    }
+
+    private static Long userIdOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        return principal instanceof UserPrincipal ? ((UserPrincipal) principal).getId() : null;
+    }
+
+    private String keyOf(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package fr.example.springboot.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import fr.example.springboot.tracing.Span;
+import fr.example.springboot.tracing.Trace;
+
+/**
+ * Verifies the credentials through the delegate provider the first time, then
+ * answers from the {@link AuthenticationCache} until the entry expires or is
+ * evicted. Failed attempts are never cached, nor those that raced with a
+ * change of their user.
+ *
+ * @author Nour LABIHI
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingAuthenticationProvider.class);
+
+    private final AuthenticationProvider delegate;
+
+    private final AuthenticationCache authenticationCache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache authenticationCache) {
+        this.delegate = delegate;
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+
+        if (username == null || !(credentials instanceof String)) {
+            return delegate.authenticate(authentication);
+        }
+
+        String password = (String) credentials;
+
+        Authentication cached = authenticationCache.get(username, password);
+        if (cached != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("cached authentication for username @{}", username);
+            }
+            return copyOf(cached);
+        }
+
+        long generation = authenticationCache.generation();
+
+        Span span = Trace.open(delegate.getClass().getSimpleName() + ".authenticate");
+        Authentication verified;
+        try {
+            verified = delegate.authenticate(authentication);
+        } finally {
+            Trace.close(span);
+        }
+        if (verified != null && verified.isAuthenticated()) {
+            authenticationCache.put(username, password, copyOf(verified), generation);
+        }
+
+        return verified;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    /**
+     * the provider manager erases the credentials of what it returns, so the
+     * cached instance is never handed out directly. The principal loses its
+     * password hash, which was only needed for the verification.
+     */
+    private static Authentication copyOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof UserPrincipal) {
+            principal = ((UserPrincipal) principal).withoutPassword();
+        }
+
+        UsernamePasswordAuthenticationToken copy = new UsernamePasswordAuthenticationToken(
+                principal, null, authentication.getAuthorities());
+        copy.setDetails(authentication.getDetails());
+        return copy;
+    }
+
+}
@@ -0,0 +1,219 @@
+package fr.example.springboot.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.MacSigner;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.example.springboot.domain.User;
+import fr.example.springboot.repository.UserRepository;
+import fr.example.springboot.web.dto.TokenDetails;
+
+/**
+ * Issues and verifies the HMAC signed JWT used as bearer tokens.
+ *
+ * An access token carries the user id, username, name and role, so a request
+ * presenting one is authenticated by checking the signature only. Refresh
+ * tokens are exchanged for a new pair and re-read the user from the database.
+ *
+ * Revocation is a not-before instant per user id: any token of that user
+ * issued before it is rejected. The standard iat and exp claims are in seconds
+ * as usual, the issue instant is repeated in milliseconds in the private ims
+ * claim so that a token issued right after a revocation is still accepted. The
+ * map only holds users revoked within the refresh token lifetime.
+ *
+ * That map is kept in memory, per node and until a restart, which is enough
+ * for the short lived access tokens only. A refresh token also carries the
+ * version of its user in the private ver claim, and is only exchanged while
+ * the user is still at that version: any change of the user, a profile edit
+ * included, ends the refresh tokens issued before it.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class JwtTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenService.class);
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String ACCESS = "access";
+
+    private static final String REFRESH = "refresh";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Object>> CLAIMS = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final MacSigner signer;
+
+    private final long accessTtlMillis;
+
+    private final long refreshTtlMillis;
+
+    private final ConcurrentMap<Long, Long> notBefore = new ConcurrentHashMap<>();
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    public JwtTokenService(@Value("${app.security.jwt.secret:}") String secret,
+            @Value("${app.security.jwt.access-ttl-seconds:900}") long accessTtlSeconds,
+            @Value("${app.security.jwt.refresh-ttl-seconds:604800}") long refreshTtlSeconds) {
+        if (StringUtils.hasText(secret)) {
+            this.signer = new MacSigner(secret.getBytes(StandardCharsets.UTF_8));
+        } else {
+            log.warn("app.security.jwt.secret is not set, tokens will not survive a restart");
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            this.signer = new MacSigner(key);
+        }
+        this.accessTtlMillis = accessTtlSeconds * 1000;
+        this.refreshTtlMillis = refreshTtlSeconds * 1000;
+    }
+
+    public TokenDetails issue(UserPrincipal user) {
+        long now = System.currentTimeMillis();
+
+        if (log.isDebugEnabled()) {
+            log.debug("issue tokens for user @{}", user.getId());
+        }
+
+        return new TokenDetails(encode(user, ACCESS, now, accessTtlMillis), encode(user, REFRESH, now, refreshTtlMillis),
+                TOKEN_TYPE, accessTtlMillis / 1000);
+    }
+
+    /**
+     * verifies an access token.
+     *
+     * @return a principal built from the claims, not attached to any session
+     * @throws BadCredentialsException if the token is malformed, forged,
+     * expired or revoked
+     */
+    public UserPrincipal authenticate(String token) {
+        Map<String, Object> claims = verify(token, ACCESS);
+
+        return new UserPrincipal(longClaim(claims, "sub"), null, stringClaim(claims, "usr"), null,
+                stringClaim(claims, "name"), stringClaim(claims, "role"));
+    }
+
+    /**
+     * exchanges a refresh token for a new pair, with the role and name of the
+     * user as they are now, if the user has not changed since the token was
+     * issued.
+     */
+    public TokenDetails refresh(String refreshToken) {
+        Map<String, Object> claims = verify(refreshToken, REFRESH);
+
+        User user = userRepository.findOne(longClaim(claims, "sub"));
+        if (user == null) {
+            throw new BadCredentialsException("user of the token does not exist");
+        }
+
+        Object version = claims.get("ver");
+        if (!(version instanceof Number) || user.getVersion() == null
+                || ((Number) version).longValue() != user.getVersion()) {
+            throw new BadCredentialsException("token revoked");
+        }
+
+        return issue(UserPrincipal.of(user));
+    }
+
+    /**
+     * rejects every token of the user issued until now.
+     */
+    public void revoke(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        log.debug("revoke tokens of user @{}", userId);
+
+        notBefore.put(userId, now);
+        notBefore.values().removeIf(since -> since < now - refreshTtlMillis);
+    }
+
+    private String encode(UserPrincipal user, String type, long now, long ttlMillis) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("typ", type);
+        claims.put("sub", user.getId());
+        claims.put("usr", user.getUsername());
+        claims.put("name", user.getName());
+        claims.put("role", user.getRole());
+        claims.put("iat", now / 1000);
+        claims.put("exp", (now + ttlMillis) / 1000);
+        claims.put("ims", now);
+        if (REFRESH.equals(type)) {
+            claims.put("ver", user.getVersion());
+        }
+
+        try {
+            return JwtHelper.encode(MAPPER.writeValueAsString(claims), signer).getEncoded();
+        } catch (IOException e) {
+            throw new IllegalStateException("can not write token claims", e);
+        }
+    }
+
+    private Map<String, Object> verify(String token, String type) {
+        Map<String, Object> claims;
+        try {
+            Jwt jwt = JwtHelper.decodeAndVerify(token, signer);
+            claims = MAPPER.readValue(jwt.getClaims(), CLAIMS);
+        } catch (IOException | RuntimeException e) {
+            throw new BadCredentialsException("invalid token", e);
+        }
+
+        if (!type.equals(claims.get("typ"))) {
+            throw new BadCredentialsException("not an " + type + " token");
+        }
+
+        long now = System.currentTimeMillis();
+        if (longClaim(claims, "exp") * 1000 <= now) {
+            throw new BadCredentialsException("token expired");
+        }
+
+        Long revokedSince = notBefore.get(longClaim(claims, "sub"));
+        if (revokedSince != null && longClaim(claims, "ims") <= revokedSince) {
+            throw new BadCredentialsException("token revoked");
+        }
+
+        return claims;
+    }
+
+    private static Long longClaim(Map<String, Object> claims, String name) {
+        Object value = claims.get(name);
+        if (!(value instanceof Number)) {
+            throw new BadCredentialsException("missing claim " + name);
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static String stringClaim(Map<String, Object> claims, String name) {
+        Object value = claims.get(name);
+        return value == null ? null : value.toString();
+    }
+
+}
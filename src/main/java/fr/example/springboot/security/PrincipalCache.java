@@ -0,0 +1,95 @@
+package fr.example.springboot.security;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import fr.example.springboot.cache.BoundedCache;
+import fr.example.springboot.cache.Generations;
+import fr.example.springboot.domain.User;
+
+/**
+ * Principals loaded by username, so that verifying credentials does not query
+ * the user table each time.
+ *
+ * The cached principals are immutable {@link UserPrincipal} values, never
+ * entities, so they can be shared between requests. A principal loaded before
+ * a change of its user is not cached once the change has evicted the user,
+ * see {@link Generations}.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class PrincipalCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final BoundedCache<String, UserPrincipal> principals;
+
+    private final Generations<Long> generations = new Generations<>();
+
+    @Inject
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+            @Value("${app.security.principal-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.principals = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    public UserPrincipal get(String username) {
+        return principals.get(username);
+    }
+
+    /**
+     * the generation to take before loading a user, and to give back to
+     * {@link #put}
+     */
+    public long generation() {
+        return generations.current();
+    }
+
+    /**
+     * builds the principal of the user and caches it, unless the user was
+     * evicted since the given generation was taken.
+     *
+     * @return the principal, cached or not
+     */
+    public UserPrincipal put(User user, long generation) {
+        UserPrincipal principal = UserPrincipal.of(user);
+        if (generations.changedSince(principal.getId(), generation)) {
+            log.debug("user @{} changed during its loading, not cached", principal.getId());
+            return principal;
+        }
+
+        principals.put(principal.getUsername(), principal);
+
+        // an eviction between the check and the put may have missed the entry
+        if (generations.changedSince(principal.getId(), generation)) {
+            principals.remove(principal.getUsername());
+        }
+        return principal;
+    }
+
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+
+        log.debug("evict cached principal of user @{}", userId);
+
+        generations.bump(userId);
+        principals.removeIf((username, principal) -> userId.equals(principal.getId()));
+    }
+
+    public void clear() {
+        principals.clear();
+    }
+
+    public BoundedCache<String, UserPrincipal> getPrincipals() {
+        return principals;
+    }
+
+}
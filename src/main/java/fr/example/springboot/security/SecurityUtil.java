@@ -4,11 +4,9 @@ import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
-import fr.example.springboot.domain.User;
-
 public class SecurityUtil {
 
-    public static User currentUser() {
+    public static UserPrincipal currentUser() {
         Authentication auth = SecurityContextHolder.getContext()
                 .getAuthentication();
         if (auth == null) {
@@ -19,6 +17,10 @@ public class SecurityUtil {
             return null;
         }
 
-        return (User) auth.getPrincipal();
+        if (!(auth.getPrincipal() instanceof UserPrincipal)) {
+            return null;
+        }
+
+        return (UserPrincipal) auth.getPrincipal();
     }
 }
\ No newline at end of file
@@ -15,23 +15,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
 	private UserRepository userRepository;
 
-	public UserDetailsServiceImpl(UserRepository userRepository) {
+	private PrincipalCache principalCache;
+
+	public UserDetailsServiceImpl(UserRepository userRepository, PrincipalCache principalCache) {
 		super();
 		this.userRepository = userRepository;
+		this.principalCache = principalCache;
 	}
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+		UserPrincipal cached = principalCache.get(username);
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = principalCache.generation();
+
 		User user = userRepository.findByUsername(username);
 		if (user == null) {
 			throw new UsernameNotFoundException("username unfound:" + username);
 		}
 
 		if (log.isDebugEnabled()) {
-			log.debug("found by username @" + username);
+			log.debug("found by username @{}", username);
 		}
 
-		return user;
+		return principalCache.put(user, generation);
 
 	}
 
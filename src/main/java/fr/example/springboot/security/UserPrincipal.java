@@ -0,0 +1,125 @@
+package fr.example.springboot.security;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import fr.example.springboot.domain.User;
+
+/**
+ * The authenticated user, an immutable copy of the fields of {@link User} the
+ * security and the auditing need, with its authorities built once. Safe to
+ * share between requests and threads.
+ *
+ * The password hash is only kept by the principals loaded to verify
+ * credentials; the authentications keep {@link #withoutPassword()}.
+ *
+ * @author Nour LABIHI
+ */
+public final class UserPrincipal implements UserDetails, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final Long version;
+
+    private final String username;
+
+    private final String password;
+
+    private final String name;
+
+    private final String role;
+
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(Long id, Long version, String username, String password, String name, String role) {
+        this.id = id;
+        this.version = version;
+        this.username = username;
+        this.password = password;
+        this.name = name;
+        this.role = role;
+        this.authorities = role == null ? Collections.<GrantedAuthority>emptyList()
+                : Collections.<GrantedAuthority>singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getVersion(), user.getUsername(), user.getPassword(),
+                user.getName(), user.getRole());
+    }
+
+    /**
+     * the same principal without the password hash, or this one if it has
+     * none.
+     */
+    public UserPrincipal withoutPassword() {
+        if (password == null) {
+            return this;
+        }
+        return new UserPrincipal(id, version, username, null, name, role);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal{" + "id=" + id + ", username=" + username + ", role=" + role + '}';
+    }
+
+}
@@ -1,24 +1,61 @@
 package fr.example.springboot.service;
 
 import fr.example.springboot.DTOUtils;
+import fr.example.springboot.TransactionUtils;
 import fr.example.springboot.domain.Comment;
 import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.Post_;
+import fr.example.springboot.domain.User;
 import fr.example.springboot.exception.ResourceNotFoundException;
+import fr.example.springboot.web.dto.BatchItemResult;
 import fr.example.springboot.web.dto.CommentDetails;
 import fr.example.springboot.web.dto.CommentForm;
+import fr.example.springboot.web.dto.CursorPage;
+import fr.example.springboot.web.dto.IngestionReceipt;
 import fr.example.springboot.web.dto.PostDetails;
 import fr.example.springboot.web.dto.PostForm;
+import fr.example.springboot.web.dto.PostPatch;
+import fr.example.springboot.web.dto.PostVersion;
 import fr.example.springboot.repository.CommentRepository;
+import fr.example.springboot.repository.KeysetCursor;
 import fr.example.springboot.repository.PostRepository;
 import fr.example.springboot.repository.PostSpecifications;
+import fr.example.springboot.search.PostSearchIndex;
+import fr.example.springboot.security.SecurityUtil;
+import fr.example.springboot.security.UserPrincipal;
+import fr.example.springboot.service.SerializedPostCache.SerializedPost;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  *
@@ -31,35 +68,164 @@ public class BlogService {
 
     private static final Logger log = LoggerFactory.getLogger(BlogService.class);
 
+    /**
+     * ids per bulk delete statement, keeps the IN lists under the database
+     * limits
+     */
+    private static final int DELETE_IN_LIST_SIZE = 500;
+
     @Inject
     private PostRepository postRepository;
 
     @Inject
     private CommentRepository commentRepository;
 
+    @Inject
+    private TotalCountCache totalCountCache;
+
+    @Inject
+    private PostSearchIndex postSearchIndex;
+
+    @Inject
+    private SerializedPostCache serializedPostCache;
+
+    @Inject
+    private CommentCounter commentCounter;
+
+    @Inject
+    private CommentIngestionQueue commentIngestionQueue;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.batch.chunk-size:50}")
+    private int batchChunkSize;
+
+    @Transactional(readOnly = true)
     public Page<PostDetails> searchPostsByCriteria(String q, Post.Status status, Pageable page) {
 
-        log.debug("search posts by keyword@" + q + ", page @" + page);
+        log.debug("search posts by keyword@{}, page @{}", q, page);
+
+        Page<PostDetails> found = searchIndex(q, status, page);
+        if (found != null) {
+            return found;
+        }
+
+        String keyword = StringUtils.hasText(q) ? "%" + q + "%" : null;
+
+        Slice<PostDetails> posts = postRepository.findDetailsByKeywordAndStatus(keyword, status, page);
 
-        Page<Post> posts = postRepository.findAll(PostSpecifications.filterByKeywordAndStatus(q, status),
-                page);
+        Page<PostDetails> result = DTOUtils.toPage(posts,
+                () -> totalCountCache.count(TotalCountCache.POSTS, Arrays.asList(keyword, status),
+                        () -> postRepository.countByKeywordAndStatus(keyword, status)));
 
         if (log.isDebugEnabled()) {
-            log.debug("get posts size @" + posts.getTotalElements());
+            log.debug("get posts size @{}", result.getTotalElements());
         }
 
-        return DTOUtils.mapPage(posts, PostDetails.class);
+        return result;
+    }
+
+    /**
+     * same search as {@link #searchPostsByCriteria}, but only tells whether
+     * there is a next page and never counts.
+     */
+    @Transactional(readOnly = true)
+    public Slice<PostDetails> slicePostsByCriteria(String q, Post.Status status, Pageable page) {
+
+        log.debug("slice posts by keyword@{}, page @{}", q, page);
+
+        Page<PostDetails> found = searchIndex(q, status, page);
+        if (found != null) {
+            return new SliceImpl<>(found.getContent(), page, found.hasNext());
+        }
+
+        String keyword = StringUtils.hasText(q) ? "%" + q + "%" : null;
+
+        return postRepository.findDetailsByKeywordAndStatus(keyword, status, page);
+    }
+
+    /**
+     * resolves a keyword search through the search index, then loads only the
+     * posts of the requested page.
+     *
+     * @return the page, or null if the index can not serve this search
+     */
+    private Page<PostDetails> searchIndex(String q, Post.Status status, Pageable page) {
+        if (!StringUtils.hasText(q) || !postSearchIndex.isReady() || !PostSearchIndex.supports(page.getSort())) {
+            return null;
+        }
+
+        Page<Long> ids = postSearchIndex.search(q, status, page);
+        if (ids == null) {
+            return null;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("search index found posts @{}", ids.getTotalElements());
+        }
+
+        if (!ids.hasContent()) {
+            return new PageImpl<>(Collections.<PostDetails>emptyList(), page, ids.getTotalElements());
+        }
+
+        Map<Long, PostDetails> details = new HashMap<>();
+        for (PostDetails post : postRepository.findDetailsByIdIn(ids.getContent())) {
+            details.put(post.getId(), post);
+        }
+
+        List<PostDetails> posts = ids.getContent().stream()
+                .map(details::get)
+                .filter(post -> post != null)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(posts, page, ids.getTotalElements());
+    }
+
+    /**
+     * cursor pagination of the posts, newest first.
+     *
+     * @param after cursor of the last post of the previous page, or null
+     * @param before cursor of the first post of the next page, or null
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostDetails> searchPostsByCursor(String q, Post.Status status, String after, String before,
+            int size) {
+        Assert.isTrue(size > 0, "page size must be positive");
+
+        log.debug("search posts by keyword@{}, after @{}, before @{}", q, after, before);
+
+        boolean backward = StringUtils.hasText(before);
+        KeysetCursor cursor = backward ? KeysetCursor.decode(before)
+                : (StringUtils.hasText(after) ? KeysetCursor.decode(after) : null);
+
+        Specifications<Post> spec = Specifications.where(PostSpecifications.filterByKeywordAndStatus(q, status));
+        if (cursor != null) {
+            spec = spec.and(PostSpecifications.seek(cursor, !backward));
+        }
+
+        Slice<Post> posts = postRepository.findSlice(spec, KeysetCursor.pageRequest(size, backward), Post.WITH_AUTHORS);
+
+        return CursorPage.of(DTOUtils.mapList(posts.getContent(), PostDetails.class), posts.hasNext(), backward,
+                cursor != null ? (backward ? before : after) : null,
+                p -> KeysetCursor.of(p.getCreatedDate(), p.getId()).encode());
     }
 
     public PostDetails savePost(PostForm form) {
 
-        log.debug("save post @" + form);
+        log.debug("save post @{}", form);
 
         Post post = DTOUtils.map(form, Post.class);
 
         Post saved = postRepository.save(post);
 
-        log.debug("saved post id is @" + saved);
+        totalCountCache.invalidate(TotalCountCache.POSTS);
+        indexAfterCommit(saved);
+
+        log.debug("saved post id is @{}", saved);
 
         return DTOUtils.map(saved, PostDetails.class);
 
@@ -68,24 +234,65 @@ public class BlogService {
     public PostDetails updatePost(Long id, PostForm form) {
         Assert.notNull(id, "post id can not be null");
 
-        log.debug("updating post of @" + id + ", posst content @" + form);
+        log.debug("updating post of @{}, posst content @{}", id, form);
 
         Post post = postRepository.findOne(id);
+        serializedPostCache.evictAll(Collections.singletonList(id));
         DTOUtils.mapTo(form, post);
 
         Post saved = postRepository.save(post);
 
-        log.debug("updated post@" + saved);
+        totalCountCache.invalidate(TotalCountCache.POSTS);
+        indexAfterCommit(saved);
+
+        log.debug("updated post@{}", saved);
 
         return DTOUtils.map(saved, PostDetails.class);
     }
 
+    /**
+     * writes only the changed fields of the post, in one statement and without
+     * loading it, if it is still at the version the client read.
+     *
+     * @throws OptimisticLockingFailureException if the post changed since
+     */
+    public void patchPost(Long id, PostPatch patch) {
+        Assert.notNull(id, "post id can not be null");
+
+        log.debug("patch post of @{}, patch @{}", id, patch);
+
+        Map<String, Object> changes = new HashMap<>();
+        if (patch.getTitle() != null) {
+            changes.put(Post_.title.getName(), patch.getTitle());
+        }
+        if (patch.getContent() != null) {
+            changes.put(Post_.content.getName(), patch.getContent());
+        }
+        Assert.notEmpty(changes, "nothing to update");
+
+        changes.put(Post_.lastModifiedDate.getName(), LocalDateTime.now());
+        UserPrincipal user = SecurityUtil.currentUser();
+        if (user != null) {
+            changes.put(Post_.lastModifiedBy.getName(), entityManager.getReference(User.class, user.getId()));
+        }
+
+        if (!postRepository.patch(id, patch.getVersion(), changes)) {
+            findPostVersion(id);
+            throw new OptimisticLockingFailureException("post " + id + " is no longer at version " + patch.getVersion());
+        }
+
+        serializedPostCache.evictAll(Collections.singletonList(id));
+        totalCountCache.invalidate(TotalCountCache.POSTS);
+        TransactionUtils.afterCommit(() -> postSearchIndex.refresh(id));
+    }
+
+    @Transactional(readOnly = true)
     public PostDetails findPostById(Long id) {
         Assert.notNull(id, "post id can not be null");
 
-        log.debug("find post by id@" + id);
+        log.debug("find post by id@{}", id);
 
-        Post post = postRepository.findOne(id);
+        Post post = postRepository.findById(id);
 
         if (post == null) {
             throw new ResourceNotFoundException(id);
@@ -94,70 +301,368 @@ public class BlogService {
         return DTOUtils.map(post, PostDetails.class);
     }
 
+    /**
+     * the post at the given version as JSON bytes, serialized on the first
+     * read of that version only.
+     */
+    @Transactional(readOnly = true)
+    public SerializedPost findSerializedPost(PostVersion version) {
+        SerializedPost cached = serializedPostCache.get(version);
+        if (cached != null) {
+            return cached;
+        }
+
+        return serializedPostCache.put(version, findPostById(version.getId()));
+    }
+
+    /**
+     * the current version and comment count of the post, without loading it.
+     */
+    @Transactional(readOnly = true)
+    public PostVersion findPostVersion(Long id) {
+        Assert.notNull(id, "post id can not be null");
+
+        PostVersion version = postRepository.findVersionById(id);
+
+        if (version == null) {
+            throw new ResourceNotFoundException(id);
+        }
+
+        return version;
+    }
+
+    @Transactional(readOnly = true)
     public Page<CommentDetails> findCommentsByPostId(Long id, Pageable page) {
 
-        log.debug("find comments by post id@" + id);
+        log.debug("find comments by post id@{}", id);
+
+        Slice<CommentDetails> comments = commentRepository.findDetailsByPostId(id, page);
 
-        Page<Comment> comments = commentRepository.findByPostId(id, page);
+        Page<CommentDetails> result = DTOUtils.toPage(comments,
+                () -> totalCountCache.count(TotalCountCache.COMMENTS, id, () -> commentRepository.countByPostId(id)));
 
         if (log.isDebugEnabled()) {
-            log.debug("found results@" + comments.getTotalElements());
+            log.debug("found results@{}", result.getTotalElements());
         }
 
-        return DTOUtils.mapPage(comments, CommentDetails.class);
+        return result;
+    }
+
+    /**
+     * same as {@link #findCommentsByPostId}, but only tells whether there is a
+     * next page and never counts.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CommentDetails> sliceCommentsByPostId(Long id, Pageable page) {
+
+        log.debug("slice comments by post id@{}", id);
+
+        return commentRepository.findDetailsByPostId(id, page);
+    }
+
+    /**
+     * cursor pagination of the comments of a post, newest first.
+     *
+     * @param after cursor of the last comment of the previous page, or null
+     * @param before cursor of the first comment of the next page, or null
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentDetails> findCommentsByPostIdAndCursor(Long id, String after, String before, int size) {
+        Assert.isTrue(size > 0, "page size must be positive");
+
+        log.debug("find comments by post id@{}, after @{}, before @{}", id, after, before);
+
+        boolean backward = StringUtils.hasText(before);
+        KeysetCursor cursor = backward ? KeysetCursor.decode(before)
+                : (StringUtils.hasText(after) ? KeysetCursor.decode(after) : null);
+
+        Pageable page = KeysetCursor.pageRequest(size + 1, backward);
+
+        List<CommentDetails> comments;
+        if (cursor == null) {
+            comments = commentRepository.seekDetailsByPostId(id, page);
+        } else if (backward) {
+            comments = commentRepository.seekDetailsByPostIdNewerThan(id, cursor.getCreatedDate(), cursor.getId(),
+                    page);
+        } else {
+            comments = commentRepository.seekDetailsByPostIdOlderThan(id, cursor.getCreatedDate(), cursor.getId(),
+                    page);
+        }
+
+        boolean hasMore = comments.size() > size;
+        if (hasMore) {
+            comments = comments.subList(0, size);
+        }
+
+        return CursorPage.of(comments, hasMore, backward, cursor != null ? (backward ? before : after) : null,
+                c -> KeysetCursor.of(c.getCreatedDate(), c.getId()).encode());
     }
 
     public CommentDetails saveCommentOfPost(Long id, CommentForm fm) {
         Assert.notNull(id, "post id can not be null");
 
-        log.debug("find post by id@" + id);
-
-        Post post = postRepository.findOne(id);
+        log.debug("check post by id@{}", id);
 
-        if (post == null) {
+        if (!postRepository.exists(id)) {
             throw new ResourceNotFoundException(id);
         }
 
+        // a reference is enough to set the foreign key, the post is not loaded
+        Post post = postRepository.getOne(id);
+
         Comment comment = DTOUtils.map(fm, Comment.class);
 
         comment.setPost(post);
 
         comment = commentRepository.save(comment);
 
+        totalCountCache.invalidate(TotalCountCache.COMMENTS, id);
+        TransactionUtils.afterCommit(() -> commentCounter.add(id, 1));
+
         if (log.isDebugEnabled()) {
-            log.debug("comment saved@" + comment);
+            log.debug("comment saved@{}", comment.getId());
         }
 
         return DTOUtils.map(comment, CommentDetails.class);
     }
 
+    /**
+     * queues the comment for the write-behind writer instead of saving it in
+     * this request; the post is only checked to exist. Not read-only: the
+     * check guards a write, it must see a post just created on the primary.
+     */
+    public IngestionReceipt queueCommentOfPost(Long id, CommentForm fm) {
+        Assert.notNull(id, "post id can not be null");
+
+        findPostVersion(id);
+
+        String provisionalId = commentIngestionQueue.offer(id, fm);
+
+        if (log.isDebugEnabled()) {
+            log.debug("queued comment @{} of post @{}", provisionalId, id);
+        }
+
+        return new IngestionReceipt(provisionalId, id);
+    }
+
+    /**
+     * deletes the comments of the post, then the post, with one statement
+     * each; only the version of the post is read beforehand.
+     */
     public void deletePostById(Long id) {
         Assert.notNull(id, "post id can not be null");
 
-        log.debug("find post by id@" + id);
+        log.debug("delete post by id@{}", id);
 
-        Post post = postRepository.findOne(id);
+        PostVersion version = findPostVersion(id);
 
-        if (post == null) {
+        List<Long> ids = Collections.singletonList(id);
+        int comments = commentRepository.deleteByPostIdIn(ids);
+
+        if (postRepository.deleteByIdIn(ids) == 0) {
+            throw new ResourceNotFoundException(id);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("deleted post @{} with comments @{}", id, comments);
+        }
+
+        serializedPostCache.evict(version);
+        postsDeleted(ids);
+    }
+
+    /**
+     * deletes the given posts and their comments, ignoring the ids which do
+     * not exist.
+     *
+     * @return the number of deleted posts
+     */
+    public int deletePosts(Collection<Long> ids) {
+        Assert.notEmpty(ids, "post ids can not be empty");
+
+        log.debug("delete posts by ids @{}", ids.size());
+
+        return deletePostsIn(new ArrayList<>(new LinkedHashSet<>(ids)));
+    }
+
+    /**
+     * deletes the posts of the given status created before the given date,
+     * and their comments. At least one criterion is required.
+     *
+     * @return the number of deleted posts
+     */
+    public int deletePostsByCriteria(Post.Status status, LocalDateTime createdBefore) {
+        Assert.isTrue(status != null || createdBefore != null, "a status or a creation date is required");
+
+        log.debug("delete posts by status @{}, created before @{}", status, createdBefore);
+
+        return deletePostsIn(postRepository.findIds(
+                PostSpecifications.filterByStatusAndCreatedBefore(status, createdBefore)));
+    }
+
+    /**
+     * bulk deletes of the comments then the posts, a bounded IN list at a
+     * time.
+     */
+    private int deletePostsIn(List<Long> ids) {
+        int posts = 0;
+        int comments = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_IN_LIST_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + DELETE_IN_LIST_SIZE, ids.size()));
+            comments += commentRepository.deleteByPostIdIn(chunk);
+            posts += postRepository.deleteByIdIn(chunk);
+        }
+
+        log.info("deleted posts @{} with comments @{}", posts, comments);
+
+        if (posts > 0) {
+            serializedPostCache.evictAll(ids);
+            postsDeleted(ids);
+        }
+
+        return posts;
+    }
+
+    private void postsDeleted(List<Long> ids) {
+        totalCountCache.invalidate(TotalCountCache.POSTS);
+        for (Long id : ids) {
+            totalCountCache.invalidate(TotalCountCache.COMMENTS, id);
+        }
+        TransactionUtils.afterCommit(() -> {
+            for (Long id : ids) {
+                postSearchIndex.remove(id);
+                commentCounter.forget(id);
+            }
+        });
+    }
+
+    /**
+     * saves the posts in transactions of a chunk each, flushing and clearing
+     * the persistence context between chunks. A chunk that fails is rolled
+     * back and reported as failed, the other chunks are kept.
+     *
+     * @return one result per form, in the same order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchItemResult> savePosts(List<PostForm> forms) {
+
+        log.debug("save posts in batch @{}", forms.size());
+
+        return saveInChunks(forms, chunk -> {
+            List<Post> posts = new ArrayList<>(chunk.size());
+            for (PostForm form : chunk) {
+                posts.add(DTOUtils.map(form, Post.class));
+            }
+
+            List<Post> saved = postRepository.save(posts);
+            entityManager.flush();
+
+            List<Long> ids = new ArrayList<>(saved.size());
+            for (Post post : saved) {
+                indexAfterCommit(post);
+                ids.add(post.getId());
+            }
+
+            entityManager.clear();
+
+            totalCountCache.invalidate(TotalCountCache.POSTS);
+
+            return ids;
+        });
+    }
+
+    /**
+     * saves the comments of a post in chunked transactions, as
+     * {@link #savePosts}.
+     *
+     * @return one result per form, in the same order
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchItemResult> saveCommentsOfPost(Long id, List<CommentForm> forms) {
+        Assert.notNull(id, "post id can not be null");
+
+        log.debug("save comments of post @{} in batch @{}", id, forms.size());
+
+        if (!postRepository.exists(id)) {
             throw new ResourceNotFoundException(id);
         }
 
-        postRepository.delete(post);
+        return saveInChunks(forms, chunk -> {
+            Post post = postRepository.getOne(id);
+
+            List<Comment> comments = new ArrayList<>(chunk.size());
+            for (CommentForm form : chunk) {
+                Comment comment = DTOUtils.map(form, Comment.class);
+                comment.setPost(post);
+                comments.add(comment);
+            }
+
+            List<Comment> saved = commentRepository.save(comments);
+            entityManager.flush();
+
+            List<Long> ids = new ArrayList<>(saved.size());
+            for (Comment comment : saved) {
+                ids.add(comment.getId());
+            }
+
+            entityManager.clear();
+
+            totalCountCache.invalidate(TotalCountCache.COMMENTS, id);
+            TransactionUtils.afterCommit(() -> commentCounter.add(id, ids.size()));
+
+            return ids;
+        });
+    }
+
+    private <F> List<BatchItemResult> saveInChunks(List<F> forms, Function<List<F>, List<Long>> chunkSaver) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<BatchItemResult> results = new ArrayList<>(forms.size());
+        for (int from = 0; from < forms.size(); from += batchChunkSize) {
+            List<F> chunk = forms.subList(from, Math.min(forms.size(), from + batchChunkSize));
+            try {
+                for (Long id : transaction.execute(status -> chunkSaver.apply(chunk))) {
+                    results.add(BatchItemResult.created(id));
+                }
+            } catch (RuntimeException e) {
+                log.warn("batch chunk from item {} failed, rolled back", from, e);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchItemResult.failed());
+                }
+            }
+        }
+        return results;
     }
 
     public void deleteCommentById(Long id) {
         Assert.notNull(id, "comment id can not be null");
 
         if (log.isDebugEnabled()) {
-            log.debug("delete comment by id@" + id);
+            log.debug("delete comment by id@{}", id);
         }
 
-        Comment comment = commentRepository.findOne(id);
+        Long postId = commentRepository.findPostIdById(id);
 
-        if (comment == null) {
+        if (postId == null || commentRepository.deleteByIdIn(Collections.singletonList(id)) == 0) {
             throw new ResourceNotFoundException(id);
         }
 
-        commentRepository.delete(comment);
+        totalCountCache.invalidate(TotalCountCache.COMMENTS, postId);
+        TransactionUtils.afterCommit(() -> commentCounter.add(postId, -1));
+    }
+
+    /**
+     * snapshots the indexed fields now and updates the search index once the
+     * post is committed.
+     */
+    private void indexAfterCommit(Post post) {
+        Long id = post.getId();
+        String title = post.getTitle();
+        String content = post.getContent();
+        Post.Status status = post.getStatus();
+        LocalDateTime createdDate = post.getCreatedDate();
+
+        TransactionUtils.afterCommit(() -> postSearchIndex.add(id, title, content, status, createdDate));
     }
 }
@@ -0,0 +1,176 @@
+package fr.example.springboot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import fr.example.springboot.domain.Post;
+
+/**
+ * Keeps {@link Post#getCommentCount()} up to date without touching the post
+ * row on each comment.
+ *
+ * The changes are summed per post in {@link LongAdder}s, which spread the
+ * concurrent increments over cells instead of contending on one value, and
+ * are written periodically as a single JDBC batch. The counts read from the
+ * database are therefore behind by at most one flush delay. On startup the
+ * counts that drifted from the comments table are repaired.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class CommentCounter implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCounter.class);
+
+    private static final String UPDATE_COUNT = "update posts set comment_count = comment_count + ? where id = ?";
+
+    /**
+     * one adder per post with changes since the last flush, removed by the
+     * flush once it is back to zero.
+     */
+    private final ConcurrentMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.comment-count.batch-size:100}")
+    private int batchSize;
+
+    public void add(Long postId, long delta) {
+        LongAdder adder = pending.computeIfAbsent(postId, id -> new LongAdder());
+        adder.add(delta);
+        if (pending.get(postId) != adder) {
+            // a flush removed the adder while it was being added to
+            moveRemaining(postId, adder);
+        }
+    }
+
+    /**
+     * drops the pending changes of a deleted post.
+     */
+    public void forget(Long postId) {
+        pending.remove(postId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.comment-count.flush-delay-millis:5000}")
+    public void flush() {
+        List<Object[]> deltas = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta != 0) {
+                // subtracting what was read keeps the increments made meanwhile
+                adder.add(-delta);
+                deltas.add(new Object[]{delta, entry.getKey()});
+            }
+            if (adder.sum() == 0 && pending.remove(entry.getKey(), adder)) {
+                moveRemaining(entry.getKey(), adder);
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> jdbcTemplate.batchUpdate(UPDATE_COUNT, deltas,
+                    batchSize, (ps, delta) -> {
+                        ps.setLong(1, (Long) delta[0]);
+                        ps.setLong(2, (Long) delta[1]);
+                    }));
+        } catch (RuntimeException e) {
+            log.warn("can not flush the comment counts of {} posts, retrying on next flush", deltas.size(), e);
+            for (Object[] delta : deltas) {
+                add((Long) delta[1], (Long) delta[0]);
+            }
+            return;
+        }
+
+        for (Object[] delta : deltas) {
+            entityManagerFactory.getCache().evict(Post.class, delta[1]);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("flushed comment counts of posts @{}", deltas.size());
+        }
+    }
+
+    /**
+     * the number of posts with an adder, pending changes or not.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * puts back in the map what was added to an adder after it was removed.
+     * Both the flush that removed it and the adds that find it removed call
+     * this, each until it reads zero, so the value is moved and never lost.
+     */
+    private void moveRemaining(Long postId, LongAdder removed) {
+        for (long remaining = removed.sum(); remaining != 0; remaining = removed.sum()) {
+            removed.add(-remaining);
+            add(postId, remaining);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext().getParent() == null) {
+            reconcile();
+        }
+    }
+
+    /**
+     * recounts the comments of the posts whose count drifted, e.g. after a
+     * crash lost the pending changes.
+     */
+    public int reconcile() {
+        int repaired = new TransactionTemplate(transactionManager).execute(status -> entityManager
+                .createQuery("update Post p set p.commentCount = "
+                        + "(select count(c) from Comment c where c.post = p) "
+                        + "where p.commentCount <> (select count(c) from Comment c where c.post = p)")
+                .executeUpdate());
+
+        log.info("reconciled comment counts of posts @{}", repaired);
+
+        return repaired;
+    }
+
+}
@@ -0,0 +1,352 @@
+package fr.example.springboot.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import fr.example.springboot.DTOUtils;
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.exception.QueueFullException;
+import fr.example.springboot.repository.CommentRepository;
+import fr.example.springboot.repository.PostRepository;
+import fr.example.springboot.web.dto.CommentForm;
+import fr.example.springboot.web.dto.IngestionStatistics;
+
+/**
+ * Write-behind queue of the comments posted with {@code async=true}.
+ *
+ * The request threads only reserve a slot and append to a lock-free queue; a
+ * single writer thread drains it and writes everything queued meanwhile in one
+ * transaction, so a burst of comments costs one commit per group instead of
+ * one per comment. When the queue is full the comment is rejected with a
+ * {@link QueueFullException} rather than buffered without bound.
+ *
+ * A group that fails is written again one comment at a time, so that a single
+ * bad comment (e.g. on a post deleted meanwhile) does not drop the others. On
+ * shutdown the queue stops accepting and the writer drains what is left, then
+ * the comments of the offers that raced with the shutdown are written too;
+ * whatever is still queued at the timeout is counted as dropped. This bean
+ * depends on {@link CommentCounter}, which is therefore flushed after it.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class CommentIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentIngestionQueue.class);
+
+    private final ConcurrentLinkedQueue<Item> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * reserved slots, taken before appending so that the capacity is never
+     * exceeded; {@link ConcurrentLinkedQueue#size()} is not constant time. The
+     * shutdown also waits on it for the offers between their reservation and
+     * their append.
+     */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder committed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private volatile int lastBatchSize;
+
+    private volatile int maxBatchSize;
+
+    private volatile boolean accepting;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    @Inject
+    private PostRepository postRepository;
+
+    @Inject
+    private CommentRepository commentRepository;
+
+    @Inject
+    private TotalCountCache totalCountCache;
+
+    @Inject
+    private CommentCounter commentCounter;
+
+    @Inject
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.ingestion.capacity:10000}")
+    private int capacity;
+
+    @Value("${app.ingestion.max-batch:200}")
+    private int maxBatch;
+
+    @Value("${app.ingestion.idle-millis:50}")
+    private long idleMillis;
+
+    @Value("${app.ingestion.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        accepting = true;
+
+        writer = new Thread(this::drain, "comment-ingestion");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * queues a validated comment of the post, written later with the current
+     * user as author.
+     *
+     * @return the provisional id of the comment
+     * @throws QueueFullException if the queue is full or shutting down
+     */
+    public String offer(Long postId, CommentForm form) {
+        if (!accepting) {
+            rejected.increment();
+            throw new QueueFullException("comment ingestion is shutting down");
+        }
+
+        int reserved;
+        do {
+            reserved = depth.get();
+            if (reserved >= capacity) {
+                rejected.increment();
+                throw new QueueFullException("comment ingestion queue is full");
+            }
+        } while (!depth.compareAndSet(reserved, reserved + 1));
+
+        // checked again after the reservation: either the shutdown sees the
+        // slot and waits for the comment, or the comment sees the shutdown
+        if (!accepting) {
+            depth.decrementAndGet();
+            rejected.increment();
+            throw new QueueFullException("comment ingestion is shutting down");
+        }
+
+        String id = UUID.randomUUID().toString();
+        queue.offer(new Item(id, postId, form, SecurityContextHolder.getContext().getAuthentication()));
+        accepted.increment();
+
+        if (reserved == 0) {
+            LockSupport.unpark(writer);
+        }
+
+        return id;
+    }
+
+    public IngestionStatistics statistics() {
+        IngestionStatistics stats = new IngestionStatistics();
+        stats.setCapacity(capacity);
+        stats.setDepth(depth.get());
+        stats.setAccepted(accepted.sum());
+        stats.setRejected(rejected.sum());
+        stats.setCommitted(committed.sum());
+        stats.setFailed(failed.sum());
+        stats.setDropped(dropped.sum());
+        stats.setBatches(batches.sum());
+        stats.setLastBatchSize(lastBatchSize);
+        stats.setMaxBatchSize(maxBatchSize);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        running = false;
+        LockSupport.unpark(writer);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeoutSeconds);
+        writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+
+        if (!writer.isAlive()) {
+            drainRemaining(deadline);
+        }
+
+        int lost = depth.get();
+        if (lost > 0) {
+            dropped.add(lost);
+            log.warn("comment ingestion stopped before draining, comments lost @{}", lost);
+        } else {
+            log.info("comment ingestion drained, comments written @{}", committed.sum());
+        }
+    }
+
+    private void drain() {
+        List<Item> group = new ArrayList<>(maxBatch);
+
+        while (true) {
+            poll(group);
+
+            if (group.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(idleMillis));
+                continue;
+            }
+
+            writeGroup(group);
+        }
+    }
+
+    /**
+     * writes, on the shutdown thread once the writer has exited, the comments
+     * of the offers that reserved a slot before the queue stopped accepting
+     * and appended after the writer drained.
+     */
+    private void drainRemaining(long deadline) {
+        List<Item> group = new ArrayList<>(maxBatch);
+
+        while (depth.get() > 0 && System.nanoTime() < deadline) {
+            poll(group);
+
+            if (group.isEmpty()) {
+                // a reserved comment not appended yet
+                Thread.yield();
+                continue;
+            }
+
+            writeGroup(group);
+        }
+    }
+
+    private void poll(List<Item> group) {
+        Item item;
+        while (group.size() < maxBatch && (item = queue.poll()) != null) {
+            group.add(item);
+        }
+    }
+
+    private void writeGroup(List<Item> group) {
+        depth.addAndGet(-group.size());
+
+        try {
+            write(group);
+        } catch (RuntimeException e) {
+            // keeps the writer alive whatever happens to a group
+            failed.add(group.size());
+            log.error("can not write comments @{}", group.size(), e);
+        }
+
+        group.clear();
+    }
+
+    private void write(List<Item> group) {
+        batches.increment();
+        lastBatchSize = group.size();
+        if (group.size() > maxBatchSize) {
+            maxBatchSize = group.size();
+        }
+
+        try {
+            persist(group);
+            written(group);
+        } catch (RuntimeException e) {
+            log.warn("can not write the group of {} comments, writing them one by one", group.size(), e);
+
+            for (Item item : group) {
+                try {
+                    persist(Collections.singletonList(item));
+                    written(Collections.singletonList(item));
+                } catch (RuntimeException ex) {
+                    failed.increment();
+                    log.warn("dropped comment @{} of post @{}", item.id, item.postId, ex);
+                }
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("wrote comments @{}, still queued @{}", group.size(), depth.get());
+        }
+    }
+
+    /**
+     * saves the comments in one transaction, each one audited as the user who
+     * posted it.
+     */
+    private void persist(List<Item> items) {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Map<Long, Post> posts = new HashMap<>();
+            for (Item item : items) {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(item.authentication);
+                SecurityContextHolder.setContext(context);
+                try {
+                    Comment comment = DTOUtils.map(item.form, Comment.class);
+                    comment.setPost(posts.computeIfAbsent(item.postId, postRepository::getOne));
+                    commentRepository.save(comment);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }
+            return null;
+        });
+    }
+
+    private void written(List<Item> items) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Item item : items) {
+            counts.merge(item.postId, 1, Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> count : counts.entrySet()) {
+            totalCountCache.invalidate(TotalCountCache.COMMENTS, count.getKey());
+            commentCounter.add(count.getKey(), count.getValue());
+        }
+
+        committed.add(items.size());
+    }
+
+    private static final class Item {
+
+        private final String id;
+
+        private final Long postId;
+
+        private final CommentForm form;
+
+        private final Authentication authentication;
+
+        private Item(String id, Long postId, CommentForm form, Authentication authentication) {
+            this.id = id;
+            this.postId = postId;
+            this.form = form;
+            this.authentication = authentication;
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package fr.example.springboot.service;
 
+import java.util.Arrays;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 
@@ -7,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import fr.example.springboot.domain.User;
@@ -15,9 +18,11 @@ import fr.example.springboot.repository.UserRepository;
  * 
  * @author Nour LABIHI
  *
+ * runs before the other refresh listeners, so the search indexes are built
+ * with the imported data.
  */
 @Named
-public class InitDB implements ApplicationListener<ContextRefreshedEvent> {
+public class InitDB implements ApplicationListener<ContextRefreshedEvent>, Ordered {
 
     private static final Logger log = LoggerFactory.getLogger(InitDB.class);
 
@@ -27,6 +32,11 @@ public class InitDB implements ApplicationListener<ContextRefreshedEvent> {
     @Inject
     private PasswordEncoder passwordEncoder;
 
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
     @Override
     public void onApplicationEvent(ContextRefreshedEvent event) {
         if (log.isInfoEnabled()) {
@@ -39,32 +49,29 @@ public class InitDB implements ApplicationListener<ContextRefreshedEvent> {
                 log.debug("import users data into database...");
             }
             
-            userRepository.save(
+            // saved together so the inserts go in one JDBC batch
+            userRepository.save(Arrays.asList(
                 new User().builder()
                 .username("admin")
                 .password(passwordEncoder.encode("admin"))
                 .name("Administrator")
                 .role("ADMIN")
-                .build()
-            );
-            
-            userRepository.save(
-                 new User().builder()
+                .build(),
+
+                new User().builder()
                 .username("testuser")
                 .password(passwordEncoder.encode("testuser"))
                 .name("Test User")
                 .role("USER")
+                .build(),
+
+                new User().builder()
+                .username("nour")
+                .password(passwordEncoder.encode("test++"))
+                .name("the developer")
+                .role("ADMIN")
                 .build()
-            );
-            
-            userRepository.save(
-                    new User().builder()
-                   .username("nour")
-                   .password(passwordEncoder.encode("test++"))
-                   .name("the developer")
-                   .role("ADMIN")
-                   .build()
-               );
+            ));
 
         }
 
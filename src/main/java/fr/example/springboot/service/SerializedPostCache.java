@@ -0,0 +1,178 @@
+package fr.example.springboot.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.example.springboot.TransactionUtils;
+import fr.example.springboot.cache.BoundedCache;
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostVersion;
+import fr.example.springboot.web.dto.Versioned;
+
+/**
+ * The JSON of the posts, serialized once per version with the application
+ * object mapper and optionally gzipped, so that a hot post is written to the
+ * response as is.
+ *
+ * Entries are keyed by the whole {@link PostVersion}, with the versions of the
+ * authors whose names the JSON embeds, so that a post is not served stale
+ * after an update, a new comment or an author rename. The post is loaded after
+ * its version was read, so an entry may hold a newer state than its key, never
+ * an older one. The eviction on update and delete only frees the memory early.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class SerializedPostCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SerializedPostCache.class);
+
+    /**
+     * below this size gzip saves nothing worth the header
+     */
+    private static final int GZIP_MIN_SIZE = 256;
+
+    private final BoundedCache<List<Long>, SerializedPost> posts;
+
+    private final boolean gzip;
+
+    @Inject
+    private ObjectMapper objectMapper;
+
+    @Inject
+    public SerializedPostCache(
+            @Value("${app.cache.post-json.max-size:2000}") int maxSize,
+            @Value("${app.cache.post-json.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.cache.post-json.gzip:true}") boolean gzip) {
+        this.posts = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return the serialized post at this version, or null if not cached
+     */
+    public SerializedPost get(PostVersion version) {
+        return posts.get(key(version));
+    }
+
+    /**
+     * serializes the post and caches the bytes under the version read before
+     * the post was loaded.
+     */
+    public SerializedPost put(PostVersion version, PostDetails post) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(post);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("can not serialize post @" + post.getId(), e);
+        }
+
+        SerializedPost serialized = new SerializedPost(post.getId(), post.getVersion(), post.getCommentCount(), json,
+                gzip && json.length >= GZIP_MIN_SIZE ? gzip(json) : null);
+
+        posts.put(key(version), serialized);
+
+        return serialized;
+    }
+
+    /**
+     * drops the post at the given version once the transaction commits.
+     */
+    public void evict(PostVersion version) {
+        List<Long> key = key(version);
+        TransactionUtils.afterCommit(() -> posts.remove(key));
+    }
+
+    /**
+     * drops every version of the given posts once the transaction commits.
+     */
+    public void evictAll(Collection<Long> postIds) {
+        Set<Long> ids = new HashSet<>(postIds);
+        TransactionUtils.afterCommit(() -> posts.removeIf((key, post) -> ids.contains(key.get(0))));
+    }
+
+    public BoundedCache<List<Long>, SerializedPost> getPosts() {
+        return posts;
+    }
+
+    private static List<Long> key(PostVersion version) {
+        return Arrays.asList(version.getId(), version.getVersion(), version.getCommentCount(),
+                version.getCreatedByVersion(), version.getLastModifiedByVersion());
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            log.warn("can not gzip post json", e);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    public static final class SerializedPost implements Versioned {
+
+        private final Long id;
+
+        private final Long version;
+
+        private final long commentCount;
+
+        private final byte[] json;
+
+        private final byte[] gzipped;
+
+        private SerializedPost(Long id, Long version, long commentCount, byte[] json, byte[] gzipped) {
+            this.id = id;
+            this.version = version;
+            this.commentCount = commentCount;
+            this.json = json;
+            this.gzipped = gzipped;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public long getUnversionedState() {
+            return commentCount;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzipped json, or null if it was not worth compressing
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+    }
+
+}
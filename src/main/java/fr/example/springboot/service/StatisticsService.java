@@ -0,0 +1,149 @@
+package fr.example.springboot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import fr.example.springboot.cache.BoundedCache;
+import fr.example.springboot.metrics.QueryProfiler;
+import fr.example.springboot.security.AuthenticationCache;
+import fr.example.springboot.security.PrincipalCache;
+import fr.example.springboot.web.dto.CacheStatistics;
+import fr.example.springboot.web.dto.QueryStatistics;
+
+/**
+ * Gathers the statistics of the caches and of the queries for the admin
+ * endpoints.
+ *
+ * @author Nour LABIHI
+ */
+@Service
+public class StatisticsService {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private TotalCountCache totalCountCache;
+
+    @Inject
+    private AuthenticationCache authenticationCache;
+
+    @Inject
+    private PrincipalCache principalCache;
+
+    @Inject
+    private SerializedPostCache serializedPostCache;
+
+    @Inject
+    private QueryProfiler queryProfiler;
+
+    /**
+     * the second-level cache regions of Hibernate, then the in-process caches
+     * of the application.
+     */
+    public List<CacheStatistics> cacheStatistics() {
+        List<CacheStatistics> caches = new ArrayList<>();
+
+        Statistics statistics = hibernateStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            SecondLevelCacheStatistics cache = statistics.getSecondLevelCacheStatistics(region);
+            caches.add(new CacheStatistics(region, cache.getHitCount(), cache.getMissCount(), cache.getPutCount(),
+                    cache.getElementCountInMemory()));
+        }
+
+        caches.add(of("totalCounts", totalCountCache.getCounts()));
+        caches.add(of("authentications", authenticationCache.getAuthentications()));
+        caches.add(of("principals", principalCache.getPrincipals()));
+        caches.add(of("postJson", serializedPostCache.getPosts()));
+
+        return caches;
+    }
+
+    /**
+     * the global statistics of Hibernate, then the statements of the profiled
+     * requests per service method.
+     */
+    public QueryStatistics queryStatistics() {
+        Statistics statistics = hibernateStatistics();
+
+        QueryStatistics queries = new QueryStatistics();
+        queries.setSessionsOpened(statistics.getSessionOpenCount());
+        queries.setTransactions(statistics.getTransactionCount());
+        queries.setStatementsPrepared(statistics.getPrepareStatementCount());
+        queries.setQueriesExecuted(statistics.getQueryExecutionCount());
+        queries.setQueryMaxMillis(statistics.getQueryExecutionMaxTime());
+        queries.setSlowestQuery(statistics.getQueryExecutionMaxTimeQueryString());
+        queries.setEntitiesLoaded(statistics.getEntityLoadCount());
+        queries.setEntitiesFetched(statistics.getEntityFetchCount());
+        queries.setCollectionsLoaded(statistics.getCollectionLoadCount());
+        queries.setCollectionsFetched(statistics.getCollectionFetchCount());
+        queries.setSecondLevelCacheHits(statistics.getSecondLevelCacheHitCount());
+        queries.setSecondLevelCacheMisses(statistics.getSecondLevelCacheMissCount());
+        queries.setOptimisticFailures(statistics.getOptimisticFailureCount());
+
+        queries.setProfiledRequests(queryProfiler.getRequests());
+        queries.setProfiledStatements(queryProfiler.getStatements());
+        queries.setFlaggedRequests(queryProfiler.getFlaggedRequests());
+        queries.setMaxStatementsPerRequest(queryProfiler.getMaxStatementsPerRequest());
+        queries.setMethods(queryProfiler.methodStatistics());
+
+        return queries;
+    }
+
+    /**
+     * the counters of {@link #queryStatistics()} in the Prometheus text
+     * exposition format.
+     */
+    public String prometheusQueryStatistics() {
+        Statistics statistics = hibernateStatistics();
+
+        StringBuilder text = new StringBuilder();
+        counter(text, "hibernate_sessions_opened_total", "sessions opened", statistics.getSessionOpenCount());
+        counter(text, "hibernate_transactions_total", "transactions completed", statistics.getTransactionCount());
+        counter(text, "hibernate_statements_prepared_total", "JDBC statements prepared",
+                statistics.getPrepareStatementCount());
+        counter(text, "hibernate_queries_executed_total", "HQL and criteria queries executed",
+                statistics.getQueryExecutionCount());
+        counter(text, "hibernate_entities_loaded_total", "entities loaded", statistics.getEntityLoadCount());
+        counter(text, "hibernate_entities_fetched_total", "entities loaded on their own",
+                statistics.getEntityFetchCount());
+        counter(text, "hibernate_collections_fetched_total", "collections loaded on their own",
+                statistics.getCollectionFetchCount());
+        counter(text, "hibernate_second_level_cache_hits_total", "second-level cache hits",
+                statistics.getSecondLevelCacheHitCount());
+        counter(text, "hibernate_second_level_cache_misses_total", "second-level cache misses",
+                statistics.getSecondLevelCacheMissCount());
+        counter(text, "hibernate_optimistic_failures_total", "optimistic lock failures",
+                statistics.getOptimisticFailureCount());
+        counter(text, "profiled_requests_total", "requests profiled", queryProfiler.getRequests());
+        counter(text, "profiled_statements_total", "statements of the profiled requests",
+                queryProfiler.getStatements());
+        counter(text, "profiled_requests_flagged_total", "requests over a statement or duration threshold",
+                queryProfiler.getFlaggedRequests());
+        return text.toString();
+    }
+
+    public Statistics hibernateStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static void counter(StringBuilder text, String name, String help, long value) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private static CacheStatistics of(String name, BoundedCache<?, ?> cache) {
+        return new CacheStatistics(name, cache.getHits(), cache.getMisses(), cache.getPuts(), cache.size());
+    }
+
+}
@@ -0,0 +1,102 @@
+package fr.example.springboot.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import fr.example.springboot.TransactionUtils;
+import fr.example.springboot.cache.BoundedCache;
+import fr.example.springboot.cache.Generations;
+
+/**
+ * Caches the total counts of the paginated searches per criteria, so that
+ * browsing the pages of a search runs its count query once per TTL instead
+ * of once per page.
+ *
+ * The totals are approximate: the write paths invalidate their region after
+ * commit, but a write through another node is only seen after the TTL. A count
+ * that ran before an invalidation of its region is not cached, see
+ * {@link Generations}; the generations are kept per region, so an invalidation
+ * also skips the puts of the other searches of the region running meanwhile.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class TotalCountCache {
+
+    public static final String POSTS = "posts";
+
+    public static final String COMMENTS = "comments";
+
+    public static final String USERS = "users";
+
+    private final BoundedCache<List<Object>, Long> counts;
+
+    private final Generations<String> generations = new Generations<>();
+
+    @Inject
+    public TotalCountCache(
+            @Value("${app.cache.count.max-size:1000}") int maxSize,
+            @Value("${app.cache.count.ttl-seconds:60}") long ttlSeconds) {
+        this.counts = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param region the searched resources
+     * @param criteria the search criteria, must implement equals/hashCode
+     * @param counter runs the count query on a cache miss
+     */
+    public long count(String region, Object criteria, LongSupplier counter) {
+        List<Object> key = Arrays.asList(region, criteria);
+        Long total = counts.get(key);
+        if (total != null) {
+            return total;
+        }
+
+        long generation = generations.current();
+        total = counter.getAsLong();
+        if (generations.changedSince(region, generation)) {
+            return total;
+        }
+
+        counts.put(key, total);
+
+        // an invalidation between the check and the put may have missed it
+        if (generations.changedSince(region, generation)) {
+            counts.remove(key);
+        }
+        return total;
+    }
+
+    /**
+     * drops the counts of one search after the current transaction commits.
+     */
+    public void invalidate(String region, Object criteria) {
+        List<Object> key = Arrays.asList(region, criteria);
+        TransactionUtils.afterCommit(() -> {
+            generations.bump(region);
+            counts.remove(key);
+        });
+    }
+
+    /**
+     * drops all the counts of a region after the current transaction commits.
+     */
+    public void invalidate(String region) {
+        TransactionUtils.afterCommit(() -> {
+            generations.bump(region);
+            counts.removeIf((key, total) -> region.equals(key.get(0)));
+        });
+    }
+
+    public BoundedCache<List<Object>, Long> getCounts() {
+        return counts;
+    }
+
+}
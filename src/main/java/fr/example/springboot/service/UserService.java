@@ -1,26 +1,50 @@
 package fr.example.springboot.service;
 
 import fr.example.springboot.DTOUtils;
+import fr.example.springboot.TransactionUtils;
 import fr.example.springboot.domain.User;
+import fr.example.springboot.domain.User_;
 import fr.example.springboot.exception.PasswordMismatchedException;
 import fr.example.springboot.exception.ResourceNotFoundException;
 import fr.example.springboot.exception.UsernameAlreadyUsedException;
+import fr.example.springboot.web.dto.CursorPage;
 import fr.example.springboot.web.dto.PasswordForm;
 import fr.example.springboot.web.dto.ProfileForm;
+import fr.example.springboot.web.dto.ProfilePatch;
 import fr.example.springboot.web.dto.SignupForm;
 import fr.example.springboot.web.dto.UserDetails;
 import fr.example.springboot.web.dto.UserForm;
+import fr.example.springboot.web.dto.UserPatch;
+import fr.example.springboot.repository.KeysetCursor;
 import fr.example.springboot.repository.UserRepository;
 import fr.example.springboot.repository.UserSpecifications;
+import fr.example.springboot.search.UserSearchIndex;
+import fr.example.springboot.security.AuthenticationCache;
+import fr.example.springboot.security.JwtTokenService;
+import fr.example.springboot.security.PrincipalCache;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  *
@@ -38,19 +62,126 @@ public class UserService {
     @Inject
     private UserRepository userRepository;
 
+    @Inject
+    private TotalCountCache totalCountCache;
+
+    @Inject
+    private UserSearchIndex userSearchIndex;
+
+    @Inject
+    private AuthenticationCache authenticationCache;
+
+    @Inject
+    private JwtTokenService jwtTokenService;
+
+    @Inject
+    private PrincipalCache principalCache;
+
+    @Transactional(readOnly = true)
     public Page<UserDetails> findAll(String q, String role, Pageable page) {
 
-        log.debug("find all users by keyword@" + q + ", role:" + role);
+        log.debug("find all users by keyword@{}, role:{}", q, role);
+
+        Page<UserDetails> found = searchIndex(q, role, page);
+        if (found != null) {
+            return found;
+        }
+
+        Specification<User> spec = UserSpecifications.filterUsersByKeyword(q, role);
+
+        Slice<User> users = userRepository.findSlice(spec, page);
+
+        return DTOUtils.mapPage(users, UserDetails.class,
+                () -> totalCountCache.count(TotalCountCache.USERS, Arrays.asList(q, role),
+                        () -> userRepository.count(spec)));
+    }
+
+    /**
+     * same search as {@link #findAll}, but only tells whether there is a next
+     * page and never counts.
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserDetails> sliceAll(String q, String role, Pageable page) {
+
+        log.debug("slice all users by keyword@{}, role:{}", q, role);
+
+        Page<UserDetails> found = searchIndex(q, role, page);
+        if (found != null) {
+            return new SliceImpl<>(found.getContent(), page, found.hasNext());
+        }
 
-        Page<User> users = userRepository.findAll(UserSpecifications.filterUsersByKeyword(q, role), page);
+        Slice<User> users = userRepository.findSlice(UserSpecifications.filterUsersByKeyword(q, role), page);
 
         return DTOUtils.mapPage(users, UserDetails.class);
     }
 
+    /**
+     * resolves a keyword search through the trigram index, then loads only the
+     * users of the requested page.
+     *
+     * @return the page, or null if the index can not serve this search
+     */
+    private Page<UserDetails> searchIndex(String q, String role, Pageable page) {
+        if (!StringUtils.hasText(q) || !userSearchIndex.isReady() || !UserSearchIndex.supports(page.getSort())) {
+            return null;
+        }
+
+        Page<Long> ids = userSearchIndex.search(q, role, page);
+
+        if (log.isDebugEnabled()) {
+            log.debug("search index found users @{}", ids.getTotalElements());
+        }
+
+        Map<Long, User> users = new HashMap<>();
+        if (ids.hasContent()) {
+            for (User user : userRepository.findAll(new ArrayList<Serializable>(ids.getContent()))) {
+                users.put(user.getId(), user);
+            }
+        }
+
+        List<UserDetails> details = new ArrayList<>(ids.getNumberOfElements());
+        for (Long id : ids.getContent()) {
+            User user = users.get(id);
+            if (user != null) {
+                details.add(DTOUtils.map(user, UserDetails.class));
+            }
+        }
+
+        return new PageImpl<>(details, page, ids.getTotalElements());
+    }
+
+    /**
+     * cursor pagination of the users, newest first.
+     *
+     * @param after cursor of the last user of the previous page, or null
+     * @param before cursor of the first user of the next page, or null
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserDetails> findAllByCursor(String q, String role, String after, String before, int size) {
+        Assert.isTrue(size > 0, "page size must be positive");
+
+        log.debug("find all users by keyword@{}, role:{}, after @{}, before @{}", q, role, after, before);
+
+        boolean backward = StringUtils.hasText(before);
+        KeysetCursor cursor = backward ? KeysetCursor.decode(before)
+                : (StringUtils.hasText(after) ? KeysetCursor.decode(after) : null);
+
+        Specifications<User> spec = Specifications.where(UserSpecifications.filterUsersByKeyword(q, role));
+        if (cursor != null) {
+            spec = spec.and(UserSpecifications.seek(cursor, !backward));
+        }
+
+        Slice<User> users = userRepository.findSlice(spec, KeysetCursor.pageRequest(size, backward));
+
+        return CursorPage.of(DTOUtils.mapList(users.getContent(), UserDetails.class), users.hasNext(), backward,
+                cursor != null ? (backward ? before : after) : null,
+                u -> KeysetCursor.of(u.getCreatedDate(), u.getId()).encode());
+    }
+
     public UserDetails registerUser(SignupForm form) {
         Assert.notNull(form, " @@ SignupForm is null");
 
-        log.debug("saving user@" + form);
+        log.debug("saving user@{}", form);
 
         if (userRepository.findByUsername(form.getUsername()) != null) {
             throw new UsernameAlreadyUsedException(form.getUsername());
@@ -61,6 +192,9 @@ public class UserService {
 
         User saved = userRepository.save(user);
 
+        totalCountCache.invalidate(TotalCountCache.USERS);
+        indexAfterCommit(saved);
+
         //TODO sending an activation email.
         return DTOUtils.map(saved, UserDetails.class);
     }
@@ -68,7 +202,7 @@ public class UserService {
     public UserDetails saveUser(UserForm form) {
         Assert.notNull(form, " @@ UserForm is null");
 
-        log.debug("saving user@" + form);
+        log.debug("saving user@{}", form);
 
         if (userRepository.findByUsername(form.getUsername()) != null) {
             throw new UsernameAlreadyUsedException(form.getUsername());
@@ -79,13 +213,16 @@ public class UserService {
 
         User saved = userRepository.save(user);
 
+        totalCountCache.invalidate(TotalCountCache.USERS);
+        indexAfterCommit(saved);
+
         return DTOUtils.map(saved, UserDetails.class);
     }
 
     public void updateUser(Long id, UserForm form) {
         Assert.notNull(id, "user id can not be null");
 
-        log.debug("update user by id @" + id);
+        log.debug("update user by id @{}", id);
 
         User user = userRepository.findOne(id);
 
@@ -97,15 +234,19 @@ public class UserService {
 
         User userSaved = userRepository.save(user);
 
+        totalCountCache.invalidate(TotalCountCache.USERS);
+        indexAfterCommit(userSaved);
+        revokeAfterCommit(id);
+
         if (log.isDebugEnabled()) {
-            log.debug("updated user @" + userSaved);
+            log.debug("updated user @{}", userSaved);
         }
     }
 
     public void updatePassword(Long id, PasswordForm form) {
         Assert.notNull(id, "user id can not be null");
 
-        log.debug("update user password by id @" + id);
+        log.debug("update user password by id @{}", id);
 
         User user = userRepository.findOne(id);
 
@@ -117,15 +258,17 @@ public class UserService {
 
         User saved = userRepository.save(user);
 
+        revokeAfterCommit(id);
+
         if (log.isDebugEnabled()) {
-            log.debug("updated user @" + saved);
+            log.debug("updated user @{}", saved);
         }
     }
 
     public void updateProfile(Long id, ProfileForm form) {
         Assert.notNull(id, "user id can not be null");
 
-        log.debug("update profile for user @" + id + ", profile form@" + form);
+        log.debug("update profile for user @{}, profile form@{}", id, form);
 
         User user = userRepository.findOne(id);
 
@@ -133,15 +276,75 @@ public class UserService {
 
         User saved = userRepository.save(user);
 
+        totalCountCache.invalidate(TotalCountCache.USERS);
+        indexAfterCommit(saved);
+        evictAuthenticationsAfterCommit(id);
+
         if (log.isDebugEnabled()) {
-            log.debug("updated user @" + saved);
+            log.debug("updated user @{}", saved);
+        }
+    }
+
+    /**
+     * writes only the changed fields of the user, including the role, without
+     * loading it; the tokens issued so far are revoked.
+     *
+     * @throws OptimisticLockingFailureException if the user changed since
+     */
+    public void patchUser(Long id, UserPatch patch) {
+        Assert.notNull(id, "user id can not be null");
+
+        log.debug("patch user by id @{}, patch @{}", id, patch);
+
+        Map<String, Object> changes = changesOf(patch);
+        if (patch.getRole() != null) {
+            changes.put(User_.role.getName(), patch.getRole());
+        }
+
+        patch(id, patch.getVersion(), changes);
+
+        revokeAfterCommit(id);
+    }
+
+    /**
+     * same as {@link #patchUser} for the profile fields of the current user.
+     */
+    public void patchProfile(Long id, ProfilePatch patch) {
+        Assert.notNull(id, "user id can not be null");
+
+        log.debug("patch profile for user @{}, patch @{}", id, patch);
+
+        patch(id, patch.getVersion(), changesOf(patch));
+
+        evictAuthenticationsAfterCommit(id);
+    }
+
+    private static Map<String, Object> changesOf(ProfilePatch patch) {
+        Map<String, Object> changes = new HashMap<>();
+        if (patch.getName() != null) {
+            changes.put(User_.name.getName(), patch.getName());
+        }
+        if (patch.getEmail() != null) {
+            changes.put(User_.email.getName(), patch.getEmail());
         }
+        return changes;
     }
 
+    private void patch(Long id, Long version, Map<String, Object> changes) {
+        if (!userRepository.patch(id, version, changes)) {
+            findUserVersion(id);
+            throw new OptimisticLockingFailureException("user " + id + " is no longer at version " + version);
+        }
+
+        totalCountCache.invalidate(TotalCountCache.USERS);
+        TransactionUtils.afterCommit(() -> userSearchIndex.refresh(id));
+    }
+
+    @Transactional(readOnly = true)
     public UserDetails findUserById(Long id) {
         Assert.notNull(id, "user id can not be null");
 
-        log.debug("find user by id @" + id);
+        log.debug("find user by id @{}", id);
 
         User user = userRepository.findOne(id);
 
@@ -152,10 +355,27 @@ public class UserService {
         return DTOUtils.map(user, UserDetails.class);
     }
 
+    /**
+     * the current version of the user, without loading it.
+     */
+    @Transactional(readOnly = true)
+    public Long findUserVersion(Long id) {
+        Assert.notNull(id, "user id can not be null");
+
+        Long version = userRepository.findVersionById(id);
+
+        if (version == null) {
+            throw new ResourceNotFoundException(id);
+        }
+
+        return version;
+    }
+
+    @Transactional(readOnly = true)
     public UserDetails findUserByUsername(String username) {
         Assert.notNull(username, "user id can not be null");
 
-        log.debug("find user by username @" + username);
+        log.debug("find user by username @{}", username);
 
         User user = userRepository.findByUsername(username);
 
@@ -169,9 +389,51 @@ public class UserService {
     public void deleteUser(Long id) {
         Assert.notNull(id, "user id can not be null");
 
-        log.debug("delete user by id @" + id);
+        log.debug("delete user by id @{}", id);
 
         userRepository.delete(id);
+
+        totalCountCache.invalidate(TotalCountCache.USERS);
+        TransactionUtils.afterCommit(() -> userSearchIndex.remove(id));
+        revokeAfterCommit(id);
+    }
+
+    /**
+     * drops the cached credentials and principal of the user once the change is
+     * visible, so that the next request is verified against the new password
+     * and role.
+     */
+    private void evictAuthenticationsAfterCommit(Long id) {
+        TransactionUtils.afterCommit(() -> {
+            authenticationCache.evict(id);
+            principalCache.evict(id);
+        });
+    }
+
+    /**
+     * same as {@link #evictAuthenticationsAfterCommit}, and also rejects the
+     * bearer tokens issued so far, which carry the old role.
+     */
+    private void revokeAfterCommit(Long id) {
+        TransactionUtils.afterCommit(() -> {
+            authenticationCache.evict(id);
+            principalCache.evict(id);
+            jwtTokenService.revoke(id);
+        });
+    }
+
+    /**
+     * snapshots the indexed fields now and updates the search index once the
+     * user is committed.
+     */
+    private void indexAfterCommit(User user) {
+        Long id = user.getId();
+        String name = user.getName();
+        String username = user.getUsername();
+        String role = user.getRole();
+        LocalDateTime createdDate = user.getCreatedDate();
+
+        TransactionUtils.afterCommit(() -> userSearchIndex.add(id, name, username, role, createdDate));
     }
 
 }
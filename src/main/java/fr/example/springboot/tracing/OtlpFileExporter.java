@@ -0,0 +1,172 @@
+package fr.example.springboot.tracing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Appends the finished traces to a file in the OTLP/JSON encoding, one
+ * ExportTraceServiceRequest per line, as read by the otlpjsonfile receiver of
+ * the OpenTelemetry collector.
+ *
+ * The traces are written by a single background thread; when it falls behind
+ * by more than the queue capacity, the new traces are dropped and counted.
+ *
+ * @author Nour LABIHI
+ */
+public class OtlpFileExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(OtlpFileExporter.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final int QUEUE_CAPACITY = 1000;
+
+    private static final int STATUS_CODE_ERROR = 2;
+
+    private final Path file;
+
+    private final List<Map<String, Object>> resourceAttributes;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final ThreadPoolExecutor executor;
+
+    private Writer writer;
+
+    public OtlpFileExporter(Path file, String serviceName) {
+        this.file = file;
+        this.resourceAttributes = Collections.singletonList(attribute("service.name", serviceName));
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "otlp-file-exporter");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (r, e) -> dropped.increment());
+    }
+
+    public void export(Trace trace) {
+        executor.execute(() -> write(trace));
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * writes the queued traces, then closes the file.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("trace export stopped before writing the queued traces @{}", executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        closeWriter();
+    }
+
+    private void write(Trace trace) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+            writer.write(MAPPER.writeValueAsString(request(trace)));
+            writer.write('\n');
+            if (executor.getQueue().isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            log.warn("can not export trace @{} to @{}", trace.getTraceId(), file, e);
+            closeWriter();
+        }
+    }
+
+    private synchronized void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("can not close trace file @{}", file, e);
+            }
+            writer = null;
+        }
+    }
+
+    private Map<String, Object> request(Trace trace) {
+        List<Map<String, Object>> spans = new ArrayList<>(trace.getSpans().size());
+        for (Span span : trace.getSpans()) {
+            spans.add(span(trace, span));
+        }
+
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Collections.singletonMap("name", Tracer.class.getPackage().getName()));
+        scopeSpans.put("spans", spans);
+
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", Collections.singletonMap("attributes", resourceAttributes));
+        resourceSpans.put("scopeSpans", Collections.singletonList(scopeSpans));
+
+        return Collections.singletonMap("resourceSpans", Collections.singletonList(resourceSpans));
+    }
+
+    private static Map<String, Object> span(Trace trace, Span span) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("traceId", trace.getTraceId());
+        result.put("spanId", span.getSpanId());
+        if (span.getParentSpanId() != null) {
+            result.put("parentSpanId", span.getParentSpanId());
+        }
+        result.put("name", span.getName());
+        // SPAN_KIND_SERVER is 2, INTERNAL 1 and CLIENT 3
+        result.put("kind", span.getKind() == Span.Kind.SERVER ? 2 : span.getKind() == Span.Kind.CLIENT ? 3 : 1);
+        // 64 bits integers are strings in OTLP/JSON
+        result.put("startTimeUnixNano", String.valueOf(trace.toEpochNanos(span.getStartNanos())));
+        result.put("endTimeUnixNano", String.valueOf(trace.toEpochNanos(span.getEndNanos())));
+
+        if (!span.getAttributes().isEmpty()) {
+            List<Map<String, Object>> attributes = new ArrayList<>(span.getAttributes().size());
+            for (Map.Entry<String, String> attribute : span.getAttributes().entrySet()) {
+                attributes.add(attribute(attribute.getKey(), attribute.getValue()));
+            }
+            result.put("attributes", attributes);
+        }
+
+        if (span.getError() != null) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("code", STATUS_CODE_ERROR);
+            status.put("message", span.getError());
+            result.put("status", status);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> attribute(String key, String value) {
+        Map<String, Object> attribute = new LinkedHashMap<>();
+        attribute.put("key", key);
+        attribute.put("value", Collections.singletonMap("stringValue", value));
+        return attribute;
+    }
+
+}
@@ -0,0 +1,68 @@
+package fr.example.springboot.tracing;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.springframework.web.filter.GenericFilterBean;
+
+/**
+ * Times the Spring Security filter chain: the {@link #opening()} filter is
+ * added first in the chain and opens the span, the {@link #closing()} filter
+ * is added last and closes it before the request reaches the dispatcher. A
+ * request rejected by the chain never reaches the closing filter, its span is
+ * closed when the opening filter returns.
+ *
+ * @author Nour LABIHI
+ */
+public final class SecurityTracingFilter extends GenericFilterBean {
+
+    private static final String SPAN = SecurityTracingFilter.class.getName() + ".span";
+
+    private final boolean opening;
+
+    private SecurityTracingFilter(boolean opening) {
+        this.opening = opening;
+    }
+
+    public static SecurityTracingFilter opening() {
+        return new SecurityTracingFilter(true);
+    }
+
+    public static SecurityTracingFilter closing() {
+        return new SecurityTracingFilter(false);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!opening) {
+            Trace.close((Span) request.getAttribute(SPAN));
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (request.getAttribute(SPAN) != null) {
+            // forwarded or error dispatch, already timed
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Span span = Trace.open("security filter chain");
+        if (span == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        request.setAttribute(SPAN, span);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Trace.close(span);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package fr.example.springboot.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One timed operation of a {@link Trace}. A span is only modified by the
+ * thread of its trace until the trace ends, it is read-only afterwards.
+ *
+ * @author Nour LABIHI
+ */
+public final class Span {
+
+    public enum Kind {
+        /**
+         * the incoming request
+         */
+        SERVER,
+        /**
+         * work done in the application
+         */
+        INTERNAL,
+        /**
+         * a call to the database
+         */
+        CLIENT
+    }
+
+    private final String spanId;
+
+    private final String parentSpanId;
+
+    private final String name;
+
+    private final Kind kind;
+
+    private final long startNanos;
+
+    private long endNanos;
+
+    private String error;
+
+    private Map<String, String> attributes;
+
+    Span(String spanId, String parentSpanId, String name, Kind kind, long startNanos) {
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanos = startNanos;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (attributes == null) {
+            attributes = new LinkedHashMap<>();
+        }
+        attributes.put(key, String.valueOf(value));
+        return this;
+    }
+
+    /**
+     * marks the span as failed with the class and message of the exception.
+     */
+    public Span setError(Throwable e) {
+        error = e.getClass().getName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        return this;
+    }
+
+    public Span setError(String error) {
+        this.error = error;
+        return this;
+    }
+
+    void end(long nanos) {
+        endNanos = nanos;
+    }
+
+    boolean isEnded() {
+        return endNanos != 0;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return the id of the enclosing span, or null for the root span
+     */
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * the start, on the {@link System#nanoTime()} clock.
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes != null ? attributes : Collections.<String, String>emptyMap();
+    }
+
+}
@@ -0,0 +1,176 @@
+package fr.example.springboot.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spans of one request, opened and closed on the thread of the request by
+ * the tracing filters and interceptors and kept by {@link Tracer} once the
+ * request ends.
+ *
+ * The instrumented code calls {@link #open(String, Span.Kind)} and
+ * {@link #close(Span)}, which do nothing when the current thread is not
+ * traced.
+ *
+ * @author Nour LABIHI
+ */
+public final class Trace {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private final String traceId = id(2);
+
+    private final long startEpochNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+
+    private final long startNanos = System.nanoTime();
+
+    private final int maxSpans;
+
+    private final List<Span> spans = new ArrayList<>();
+
+    private final Deque<Span> open = new ArrayDeque<>();
+
+    private final Span root;
+
+    private int dropped;
+
+    private Trace(String name, int maxSpans) {
+        this.maxSpans = maxSpans;
+        this.root = new Span(id(1), null, name, Span.Kind.SERVER, startNanos);
+        spans.add(root);
+        open.push(root);
+    }
+
+    /**
+     * starts tracing the current thread.
+     */
+    static Trace start(String name, int maxSpans) {
+        Trace trace = new Trace(name, maxSpans);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the trace of the current thread, or null if it is not traced
+     */
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * opens a child of the innermost open span of the current trace.
+     *
+     * @return the span, or null if the thread is not traced or the trace is
+     * full
+     */
+    public static Span open(String name, Span.Kind kind) {
+        Trace trace = CURRENT.get();
+        return trace != null ? trace.startSpan(name, kind) : null;
+    }
+
+    public static Span open(String name) {
+        return open(name, Span.Kind.INTERNAL);
+    }
+
+    /**
+     * closes the span, and the spans opened in it which are still open.
+     */
+    public static void close(Span span) {
+        Trace trace = CURRENT.get();
+        if (span != null && trace != null) {
+            trace.endSpan(span);
+        }
+    }
+
+    private Span startSpan(String name, Span.Kind kind) {
+        if (spans.size() >= maxSpans || open.isEmpty()) {
+            dropped++;
+            return null;
+        }
+        Span span = new Span(id(1), open.peek().getSpanId(), name, kind, System.nanoTime());
+        spans.add(span);
+        open.push(span);
+        return span;
+    }
+
+    private void endSpan(Span span) {
+        if (span.isEnded()) {
+            return;
+        }
+        long now = System.nanoTime();
+        while (!open.isEmpty()) {
+            Span top = open.pop();
+            top.end(now);
+            if (top == span) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * closes the root span and whatever is still open.
+     */
+    void end() {
+        endSpan(root);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public Span getRoot() {
+        return root;
+    }
+
+    /**
+     * the spans in the order they were opened, the root first.
+     */
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    /**
+     * the spans which were not recorded because the trace was full.
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * the wall clock time of a {@link System#nanoTime()} value of the trace,
+     * in nanoseconds since the epoch.
+     */
+    public long toEpochNanos(long nanos) {
+        return startEpochNanos + nanos - startNanos;
+    }
+
+    public long getDurationNanos() {
+        return root.getDurationNanos();
+    }
+
+    /**
+     * random id of the given number of longs, in lowercase hexadecimal as in
+     * the W3C trace context.
+     */
+    private static String id(int longs) {
+        StringBuilder id = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            for (int pad = hex.length(); pad < 16; pad++) {
+                id.append('0');
+            }
+            id.append(hex);
+        }
+        return id.toString();
+    }
+
+}
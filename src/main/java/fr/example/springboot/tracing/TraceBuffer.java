@@ -0,0 +1,51 @@
+package fr.example.springboot.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The last finished traces, in a fixed ring: a new trace overwrites the
+ * oldest one, adding never locks nor allocates.
+ *
+ * @author Nour LABIHI
+ */
+public class TraceBuffer {
+
+    private final AtomicReferenceArray<Trace> traces;
+
+    private final AtomicLong added = new AtomicLong();
+
+    public TraceBuffer(int capacity) {
+        this.traces = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(Trace trace) {
+        long index = added.getAndIncrement();
+        traces.set((int) (index % traces.length()), trace);
+    }
+
+    /**
+     * the traces in the buffer, in no particular order.
+     */
+    public List<Trace> getTraces() {
+        List<Trace> result = new ArrayList<>(traces.length());
+        for (int i = 0; i < traces.length(); i++) {
+            Trace trace = traces.get(i);
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    public long getAdded() {
+        return added.get();
+    }
+
+    public int getCapacity() {
+        return traces.length();
+    }
+
+}
@@ -0,0 +1,149 @@
+package fr.example.springboot.tracing;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.util.StringUtils;
+
+import fr.example.springboot.web.dto.SpanDetails;
+import fr.example.springboot.web.dto.TraceDetails;
+
+/**
+ * Starts a {@link Trace} per request and keeps the last finished ones in a
+ * {@link TraceBuffer}, from which the admin endpoint lists the slowest. When
+ * app.tracing.export-file is set, the traces are also appended to that file
+ * in the OTLP/JSON encoding.
+ *
+ * @author Nour LABIHI
+ */
+@Named
+public class Tracer {
+
+    @Value("${app.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tracing.buffer-size:500}")
+    private int bufferSize;
+
+    @Value("${app.tracing.max-spans:1000}")
+    private int maxSpans;
+
+    @Value("${app.tracing.export-file:}")
+    private String exportFile;
+
+    @Value("${spring.application.name:Spring-Angular-Template}")
+    private String serviceName;
+
+    private TraceBuffer buffer;
+
+    private OtlpFileExporter exporter;
+
+    @PostConstruct
+    public void init() {
+        buffer = new TraceBuffer(bufferSize);
+        if (StringUtils.hasText(exportFile)) {
+            exporter = new OtlpFileExporter(Paths.get(exportFile), serviceName);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (exporter != null) {
+            exporter.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Trace begin(String name) {
+        return Trace.start(name, maxSpans);
+    }
+
+    public void end(Trace trace) {
+        trace.end();
+        Trace.stop();
+
+        buffer.add(trace);
+        if (exporter != null) {
+            exporter.export(trace);
+        }
+    }
+
+    /**
+     * the slowest traces of the buffer, without their spans.
+     */
+    public List<TraceDetails> slowest(int limit) {
+        List<Trace> traces = buffer.getTraces();
+        traces.sort(Comparator.comparingLong(Trace::getDurationNanos).reversed());
+
+        List<TraceDetails> result = new ArrayList<>(Math.min(limit, traces.size()));
+        for (Trace trace : traces.subList(0, Math.min(limit, traces.size()))) {
+            result.add(details(trace));
+        }
+        return result;
+    }
+
+    /**
+     * @return the trace with its spans, or null if it is no longer in the
+     * buffer
+     */
+    public TraceDetails find(String traceId) {
+        for (Trace trace : buffer.getTraces()) {
+            if (trace.getTraceId().equals(traceId)) {
+                TraceDetails details = details(trace);
+                for (Span span : trace.getSpans()) {
+                    details.getSpans().add(details(trace, span));
+                }
+                return details;
+            }
+        }
+        return null;
+    }
+
+    private static TraceDetails details(Trace trace) {
+        Span root = trace.getRoot();
+
+        TraceDetails details = new TraceDetails();
+        details.setTraceId(trace.getTraceId());
+        details.setName(root.getName());
+        details.setStartDate(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(TimeUnit.NANOSECONDS.toMillis(trace.toEpochNanos(root.getStartNanos()))),
+                ZoneId.systemDefault()));
+        details.setDurationMillis(millis(trace.getDurationNanos()));
+        details.setError(root.getError());
+        details.setSpanCount(trace.getSpans().size());
+        details.setDroppedSpans(trace.getDropped());
+        return details;
+    }
+
+    private static SpanDetails details(Trace trace, Span span) {
+        SpanDetails details = new SpanDetails();
+        details.setSpanId(span.getSpanId());
+        details.setParentSpanId(span.getParentSpanId());
+        details.setName(span.getName());
+        details.setKind(span.getKind().name());
+        details.setOffsetMillis(millis(span.getStartNanos() - trace.getRoot().getStartNanos()));
+        details.setDurationMillis(millis(span.getDurationNanos()));
+        details.setError(span.getError());
+        details.setAttributes(span.getAttributes());
+        return details;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000d;
+    }
+
+}
@@ -0,0 +1,57 @@
+package fr.example.springboot.tracing;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Traces each request with {@link Tracer}, in a root span named after the
+ * method and path. The trace id is returned in the X-Trace-Id header, to find
+ * the trace on the admin endpoint.
+ *
+ * @author Nour LABIHI
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!tracer.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Trace trace = tracer.begin(request.getMethod() + " " + request.getRequestURI());
+        Span root = trace.getRoot();
+        root.setAttribute("http.method", request.getMethod());
+        root.setAttribute("http.target", request.getRequestURI());
+        response.setHeader(TRACE_ID_HEADER, trace.getTraceId());
+
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            root.setError(e);
+            throw e;
+        } finally {
+            root.setAttribute("http.status_code", response.getStatus());
+            if (response.getStatus() >= 500 && root.getError() == null) {
+                root.setError("status " + response.getStatus());
+            }
+            tracer.end(trace);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package fr.example.springboot.tracing;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Opens a span named "Controller.method" around the handler method, the
+ * writing of the response body included.
+ *
+ * @author Nour LABIHI
+ */
+public class TracingHandlerInterceptor extends HandlerInterceptorAdapter {
+
+    private static final String SPAN = TracingHandlerInterceptor.class.getName() + ".span";
+
+    private final ConcurrentMap<Method, String> names = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && Trace.current() != null) {
+            HandlerMethod method = (HandlerMethod) handler;
+            String name = names.computeIfAbsent(method.getMethod(),
+                    m -> method.getBeanType().getSimpleName() + "." + m.getName());
+
+            request.setAttribute(SPAN, Trace.open(name));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Span span = (Span) request.getAttribute(SPAN);
+        if (span == null) {
+            return;
+        }
+        if (ex != null) {
+            span.setError(ex);
+        }
+        Trace.close(span);
+    }
+
+}
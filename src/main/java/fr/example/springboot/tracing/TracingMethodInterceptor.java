@@ -0,0 +1,54 @@
+package fr.example.springboot.tracing;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Opens a span named "Type.method" around the advised methods. The Spring
+ * Data repositories are JDK proxies, they are named after their repository
+ * interface.
+ *
+ * @author Nour LABIHI
+ */
+public class TracingMethodInterceptor implements MethodInterceptor {
+
+    private final ConcurrentMap<Class<?>, String> types = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (Trace.current() == null) {
+            return invocation.proceed();
+        }
+
+        Span span = Trace.open(type(invocation.getThis()) + "." + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            if (span != null) {
+                span.setError(e);
+            }
+            throw e;
+        } finally {
+            Trace.close(span);
+        }
+    }
+
+    private String type(Object target) {
+        return types.computeIfAbsent(target.getClass(), type -> {
+            if (Proxy.isProxyClass(type)) {
+                Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+                if (interfaces.length > 0) {
+                    return interfaces[0].getSimpleName();
+                }
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        });
+    }
+
+}
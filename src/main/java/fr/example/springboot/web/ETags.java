@@ -0,0 +1,158 @@
+package fr.example.springboot.web;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import fr.example.springboot.web.dto.Versioned;
+
+/**
+ * Builds the ETags of the API resources from the entity versions, and answers
+ * the If-None-Match conditional requests.
+ *
+ * A representation also changes with the state it embeds that does not bump
+ * its version, such as the comment count or the name of the author of a post;
+ * that state goes in the tag through {@link Versioned#getUnversionedState()}.
+ * The tags are weak, the same tag is served gzipped or not.
+ *
+ * @author Nour LABIHI
+ */
+public final class ETags {
+
+    public static final String POST = "post";
+
+    public static final String POSTS = "posts";
+
+    public static final String COMMENTS = "comments";
+
+    public static final String USER = "user";
+
+    public static final String USERS = "users";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+    }
+
+    /**
+     * tag of a single entity at the given version.
+     */
+    public static String of(String kind, Long id, Long version) {
+        return "W/\"" + kind + "-" + id + "-" + version + "\"";
+    }
+
+    /**
+     * tag of a single entity, adding the state that is not covered by its
+     * version when there is one.
+     */
+    public static String of(String kind, Versioned item) {
+        if (item.getUnversionedState() == 0) {
+            return of(kind, item.getId(), item.getVersion());
+        }
+        return "W/\"" + kind + "-" + item.getId() + "-" + item.getVersion() + "." + item.getUnversionedState() + "\"";
+    }
+
+    /**
+     * tag of a page, derived from the ids and versions it contains and from
+     * its position, so that a new or an updated row changes it.
+     */
+    public static String ofPage(String kind, Slice<? extends Versioned> slice) {
+        long hash = hash(FNV_OFFSET, slice.getNumber());
+        hash = hash(hash, slice.getSize());
+        hash = hash(hash, slice.hasNext() ? 1 : 0);
+        if (slice instanceof Page) {
+            hash = hash(hash, ((Page<?>) slice).getTotalElements());
+        }
+        if (slice.getSort() != null) {
+            hash = hash(hash, slice.getSort().toString().hashCode());
+        }
+        return tag(kind, hash(hash, slice.getContent()));
+    }
+
+    /**
+     * tag of a list of rows, with the extra values that position it, such as
+     * the cursors of a cursor page.
+     */
+    public static String ofList(String kind, List<? extends Versioned> items, Object... qualifiers) {
+        long hash = FNV_OFFSET;
+        for (Object qualifier : qualifiers) {
+            hash = hash(hash, qualifier == null ? 0 : qualifier.hashCode());
+        }
+        return tag(kind, hash(hash, items));
+    }
+
+    /**
+     * @param ifNoneMatch the If-None-Match header, may be null
+     * @return true if the header lists the tag, compared weakly, or is *
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if ("*".equals(value) || opaque.equals(opaque(value))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 when the client already has this tag, otherwise 200 with the body,
+     * both carrying the tag.
+     */
+    public static <T> ResponseEntity<T> respond(String ifNoneMatch, String etag, T body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+
+        if (matches(ifNoneMatch, etag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    public static <T> ResponseEntity<T> notModified(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String tag(String kind, long hash) {
+        return "W/\"" + kind + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long hash(long hash, List<? extends Versioned> items) {
+        for (Versioned item : items) {
+            hash = hash(hash, item.getId() == null ? 0 : item.getId());
+            hash = hash(hash, item.getVersion() == null ? 0 : item.getVersion());
+            hash = hash(hash, item.getUnversionedState());
+        }
+        return hash;
+    }
+
+    /**
+     * FNV-1a over the eight bytes of the value.
+     */
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
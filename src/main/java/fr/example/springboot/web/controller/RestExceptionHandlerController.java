@@ -2,6 +2,7 @@ package fr.example.springboot.web.controller;
 
 import fr.example.springboot.ApiErrors;
 import fr.example.springboot.exception.InvalidRequestException;
+import fr.example.springboot.exception.QueueFullException;
 import fr.example.springboot.exception.ResourceNotFoundException;
 import fr.example.springboot.exception.UsernameAlreadyUsedException;
 import fr.example.springboot.web.dto.ResponseMessage;
@@ -10,8 +11,11 @@ import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -51,6 +55,18 @@ public class RestExceptionHandlerController {
 		return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 	}
 
+	@ExceptionHandler(value = { AuthenticationException.class })
+	@ResponseBody
+	public ResponseEntity<ResponseMessage> handleAuthenticationException(AuthenticationException ex,
+			WebRequest request) {
+		if (log.isDebugEnabled()) {
+			log.debug("handling AuthenticationException...");
+		}
+
+		ResponseMessage error = ResponseMessage.danger(ex.getMessage());
+		return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+	}
+
 	@ExceptionHandler(value = { UsernameAlreadyUsedException.class })
 	@ResponseBody
 	public ResponseEntity<ResponseMessage> handleUsernameExistedException(UsernameAlreadyUsedException ex,
@@ -63,6 +79,31 @@ public class RestExceptionHandlerController {
 		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(value = { OptimisticLockingFailureException.class })
+	@ResponseBody
+	public ResponseEntity<ResponseMessage> handleOptimisticLockingFailureException(
+			OptimisticLockingFailureException ex, WebRequest request) {
+		if (log.isDebugEnabled()) {
+			log.debug("handling OptimisticLockingFailureException...");
+		}
+
+		ResponseMessage error = ResponseMessage.danger("the resource was modified meanwhile, reload it and retry.");
+		return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(value = { QueueFullException.class })
+	@ResponseBody
+	public ResponseEntity<ResponseMessage> handleQueueFullException(QueueFullException ex, WebRequest request) {
+		if (log.isDebugEnabled()) {
+			log.debug("handling QueueFullException...");
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "1");
+
+		return new ResponseEntity<>(ResponseMessage.danger(ex.getMessage()), headers, HttpStatus.TOO_MANY_REQUESTS);
+	}
+
 	@ExceptionHandler(value = { InvalidRequestException.class })
 	@ResponseBody
 	public ResponseEntity<ResponseMessage> handleInvalidRequestException(InvalidRequestException ex, WebRequest req) {
@@ -0,0 +1,163 @@
+package fr.example.springboot.web.controller.admin;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import fr.example.springboot.Constants;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.exception.ResourceNotFoundException;
+import fr.example.springboot.metrics.RequestMetrics;
+import fr.example.springboot.service.BlogService;
+import fr.example.springboot.service.CommentIngestionQueue;
+import fr.example.springboot.service.StatisticsService;
+import fr.example.springboot.tracing.Tracer;
+import fr.example.springboot.web.dto.BulkDeleteResult;
+import fr.example.springboot.web.dto.CacheStatistics;
+import fr.example.springboot.web.dto.IngestionStatistics;
+import fr.example.springboot.web.dto.MetricsReport;
+import fr.example.springboot.web.dto.TraceDetails;
+
+/**
+ * Administration endpoints, restricted to the ADMIN role.
+ *
+ * @author Nour LABIHI
+ */
+@RestController
+@RequestMapping(value = Constants.URI_API_PREFIX + Constants.URI_ADMIN)
+public class AdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+
+    /**
+     * largest number of traces listed at once
+     */
+    private static final int MAX_TRACES = 100;
+
+    @Inject
+    private StatisticsService statisticsService;
+
+    @Inject
+    private CommentIngestionQueue commentIngestionQueue;
+
+    @Inject
+    private BlogService blogService;
+
+    @Inject
+    private RequestMetrics requestMetrics;
+
+    @Inject
+    private Tracer tracer;
+
+    @RequestMapping(value = "/caches", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<List<CacheStatistics>> getCaches() {
+
+        log.debug("get cache statistics");
+
+        return new ResponseEntity<>(statisticsService.cacheStatistics(), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/ingestion", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<IngestionStatistics> getIngestion() {
+
+        log.debug("get comment ingestion statistics");
+
+        return new ResponseEntity<>(commentIngestionQueue.statistics(), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<MetricsReport> getMetrics() {
+
+        log.debug("get request metrics");
+
+        return new ResponseEntity<>(new MetricsReport(requestMetrics.snapshot(), statisticsService.queryStatistics()),
+                HttpStatus.OK);
+    }
+
+    /**
+     * same metrics in the Prometheus text format, scraped with
+     * ?format=prometheus.
+     */
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET, params = "format=prometheus")
+    @ResponseBody
+    public ResponseEntity<String> getPrometheusMetrics() {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, RequestMetrics.PROMETHEUS_CONTENT_TYPE);
+
+        return new ResponseEntity<>(requestMetrics.prometheus() + statisticsService.prometheusQueryStatistics(),
+                headers, HttpStatus.OK);
+    }
+
+    /**
+     * the slowest of the last traced requests, without their spans.
+     */
+    @RequestMapping(value = "/traces", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<List<TraceDetails>> getSlowestTraces(
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+
+        log.debug("get slowest traces @{}", limit);
+
+        Assert.isTrue(limit > 0 && limit <= MAX_TRACES, "limit must be between 1 and " + MAX_TRACES);
+
+        return new ResponseEntity<>(tracer.slowest(limit), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/traces/{traceId}", method = RequestMethod.GET)
+    @ResponseBody
+    public ResponseEntity<TraceDetails> getTrace(@PathVariable("traceId") String traceId) {
+
+        log.debug("get trace by id @{}", traceId);
+
+        TraceDetails trace = tracer.find(traceId);
+        if (trace == null) {
+            throw new ResourceNotFoundException("trace " + traceId + " was not found");
+        }
+
+        return new ResponseEntity<>(trace, HttpStatus.OK);
+    }
+
+    /**
+     * deletes the posts of the given ids, or else the posts matching the
+     * status and creation date filter, with their comments.
+     */
+    @RequestMapping(value = Constants.URI_POSTS, method = RequestMethod.DELETE)
+    @ResponseBody
+    public ResponseEntity<BulkDeleteResult> deletePosts(
+            @RequestParam(value = "ids", required = false) List<Long> ids, //
+            @RequestParam(value = "status", required = false) Post.Status status, //
+            @RequestParam(value = "createdBefore", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore) {
+
+        log.debug("delete posts by ids @{}, status @{}, created before @{}", ids, status, createdBefore);
+
+        if (ids != null && !ids.isEmpty()) {
+            Assert.isTrue(ids.size() <= Constants.MAX_BATCH_SIZE, "at most " + Constants.MAX_BATCH_SIZE + " ids");
+
+            return new ResponseEntity<>(new BulkDeleteResult(blogService.deletePosts(ids)), HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(new BulkDeleteResult(blogService.deletePostsByCriteria(status, createdBefore)),
+                HttpStatus.OK);
+    }
+
+}
@@ -34,7 +34,7 @@ public class CommentController {
     @ResponseBody
     public ResponseEntity<Void> deleteComment(@PathVariable("id") Long id) {
         if (log.isDebugEnabled()) {
-            log.debug("get comments of post id @" + id);
+            log.debug("get comments of post id @{}", id);
         }
 
         blogService.deleteCommentById(id);
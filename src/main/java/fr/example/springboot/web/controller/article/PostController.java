@@ -1,31 +1,53 @@
 package fr.example.springboot.web.controller.article;
 
+import fr.example.springboot.ApiErrors;
 import fr.example.springboot.Constants;
 import fr.example.springboot.domain.Post;
+import fr.example.springboot.exception.InvalidRequestException;
+import fr.example.springboot.web.dto.BatchItemResult;
 import fr.example.springboot.web.dto.CommentDetails;
 import fr.example.springboot.web.dto.CommentForm;
+import fr.example.springboot.web.dto.CursorPage;
+import fr.example.springboot.web.dto.IngestionReceipt;
 import fr.example.springboot.web.dto.PostDetails;
 import fr.example.springboot.web.dto.PostForm;
+import fr.example.springboot.web.dto.PostPatch;
+import fr.example.springboot.web.dto.PostVersion;
 import fr.example.springboot.web.dto.ResponseMessage;
 import fr.example.springboot.service.BlogService;
+import fr.example.springboot.service.SerializedPostCache.SerializedPost;
+import fr.example.springboot.web.AcceptEncoding;
+import fr.example.springboot.web.ETags;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Validator;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -42,40 +64,89 @@ public class PostController {
     @Inject
     private BlogService blogService;
 
+    @Inject
+    @Named("mvcValidator")
+    private Validator validator;
+
     @RequestMapping(value = "", method = RequestMethod.GET)
     @ResponseBody
     @ApiOperation(value = "Get all posts")
     @ApiResponses(
             value = {
-                @ApiResponse(code = 200, message = "return all posts by page")
+                @ApiResponse(code = 200, message = "return all posts by page, or by slice when count is false")
             }
     )
-    public ResponseEntity<Page<PostDetails>> getAllPosts(
+    public ResponseEntity<Slice<PostDetails>> getAllPosts(
             @RequestParam(value = "q", required = false) String keyword, //
             @RequestParam(value = "status", required = false) Post.Status status, //
-            @PageableDefault(page = 0, size = 10, sort = "createdDate", direction = Direction.DESC) Pageable page) {
+            @RequestParam(value = "count", defaultValue = "true") boolean count, //
+            @PageableDefault(page = 0, size = 10, sort = "createdDate", direction = Direction.DESC) Pageable page,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("get all posts of q@{}, status @{}, page@{}", keyword, status, page);
 
-        log.debug("get all posts of q@" + keyword + ", status @" + status + ", page@" + page);
+        if (!count) {
+            Slice<PostDetails> posts = blogService.slicePostsByCriteria(keyword, status, page);
+
+            return ETags.respond(ifNoneMatch, ETags.ofPage(ETags.POSTS, posts), posts);
+        }
 
         Page<PostDetails> posts = blogService.searchPostsByCriteria(keyword, status, page);
 
-        log.debug("get posts size @" + posts.getTotalElements());
+        log.debug("get posts size @{}", posts.getTotalElements());
 
-        return new ResponseEntity<>(posts, HttpStatus.OK);
+        return ETags.respond(ifNoneMatch, ETags.ofPage(ETags.POSTS, posts), posts);
+    }
+
+    @RequestMapping(value = "", method = RequestMethod.GET, params = Constants.PARAM_CURSOR)
+    @ResponseBody
+    @ApiOperation(value = "Get posts by cursor, newest first")
+    public ResponseEntity<CursorPage<PostDetails>> getPostsByCursor(
+            @RequestParam(value = "q", required = false) String keyword, //
+            @RequestParam(value = "status", required = false) Post.Status status, //
+            @RequestParam(value = "after", required = false) String after, //
+            @RequestParam(value = "before", required = false) String before, //
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("get posts of q@{}, status @{}, after@{}, before@{}", keyword, status, after, before);
+
+        CursorPage<PostDetails> posts = blogService.searchPostsByCursor(keyword, status, after, before,
+                Math.min(size, Constants.MAX_CURSOR_PAGE_SIZE));
+
+        return ETags.respond(ifNoneMatch,
+                ETags.ofList(ETags.POSTS, posts.getContent(), posts.getNext(), posts.getPrevious()), posts);
     }
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     @ResponseBody
-    @ApiOperation(value = "Get a post")
-    public ResponseEntity<PostDetails> getPost(@PathVariable("id") Long id) {
+    @ApiOperation(value = "Get a post", response = PostDetails.class)
+    public ResponseEntity<byte[]> getPost(@PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        log.debug("get postsinfo by id @{}", id);
 
-        log.debug("get postsinfo by id @" + id);
+        PostVersion version = blogService.findPostVersion(id);
 
-        PostDetails post = blogService.findPostById(id);
+        String etag = ETags.of(ETags.POST, version);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
 
-        log.debug("get post @" + post);
+        SerializedPost post = blogService.findSerializedPost(version);
 
-        return new ResponseEntity<>(post, HttpStatus.OK);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+        headers.setETag(etag);
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (post.getGzipped() != null && AcceptEncoding.acceptsGzip(acceptEncoding)) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(post.getGzipped(), headers, HttpStatus.OK);
+        }
+
+        return new ResponseEntity<>(post.getJson(), headers, HttpStatus.OK);
     }
 
     @RequestMapping(value = "", method = RequestMethod.POST)
@@ -83,11 +154,11 @@ public class PostController {
     @ApiOperation(value = "Cretae a new post")
     public ResponseEntity<Void> createPost(@RequestBody @Valid PostForm post, HttpServletRequest request) {
 
-        log.debug("create a new post@" + post);
+        log.debug("create a new post@{}", post);
 
         PostDetails saved = blogService.savePost(post);
 
-        log.debug("saved post id is @" + saved.getId());
+        log.debug("saved post id is @{}", saved.getId());
         URI loacationHeader = ServletUriComponentsBuilder
                 .fromContextPath(request)
                 .path("/api/posts/{id}")
@@ -100,24 +171,60 @@ public class PostController {
         return new ResponseEntity<>(headers, HttpStatus.CREATED);
     }
 
+    @RequestMapping(value = "/batch", method = RequestMethod.POST)
+    @ResponseBody
+    @ApiOperation(value = "Create posts in batch")
+    public ResponseEntity<List<BatchItemResult>> createPosts(@RequestBody List<PostForm> forms) {
+
+        log.debug("create posts in batch @{}", forms.size());
+
+        List<PostForm> valid = new ArrayList<>(forms.size());
+        BatchItemResult[] results = validate(forms, valid, "post");
+
+        return new ResponseEntity<>(merge(results, blogService.savePosts(valid)), HttpStatus.OK);
+    }
+
     @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
     @ResponseBody
     @ApiOperation(value = "Update an existing post")
     public ResponseEntity<ResponseMessage> updatePost(@PathVariable("id") Long id, @RequestBody @Valid PostForm form) {
 
-        log.debug("update post by id @" + id + ", form content@" + form);
+        log.debug("update post by id @{}, form content@{}", id, form);
 
         blogService.updatePost(id, form);
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @RequestMapping(value = "/{id}", method = RequestMethod.PATCH)
+    @ResponseBody
+    @ApiOperation(value = "Update the given fields of a post")
+    @ApiResponses(
+            value = {
+                @ApiResponse(code = 204, message = "the post is updated"),
+                @ApiResponse(code = 409, message = "the post was modified since the given version")
+            }
+    )
+    public ResponseEntity<ResponseMessage> patchPost(@PathVariable("id") Long id,
+            @RequestBody @Valid PostPatch patch, BindingResult errors) {
+
+        log.debug("patch post by id @{}, patch@{}", id, patch);
+
+        if (errors.hasErrors()) {
+            throw new InvalidRequestException(errors);
+        }
+
+        blogService.patchPost(id, patch);
+
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
     @ResponseBody
     @ApiOperation(value = "Delete an existing post")
     public ResponseEntity<ResponseMessage> deletePostById(@PathVariable("id") Long id) {
 
-        log.debug("delete post by id @" + id);
+        log.debug("delete post by id @{}", id);
 
         blogService.deletePostById(id);
 
@@ -126,17 +233,56 @@ public class PostController {
 
     @RequestMapping(value = "/{id}/comments", method = RequestMethod.GET)
     @ResponseBody
-    public ResponseEntity<Page<CommentDetails>> getCommentsOfPost(
+    public ResponseEntity<Slice<CommentDetails>> getCommentsOfPost(
             @PathVariable("id") Long id,
-            @PageableDefault(page = 0, size = 10, sort = "createdDate", direction = Direction.DESC) Pageable page) {
+            @RequestParam(value = "count", defaultValue = "true") boolean count,
+            @PageableDefault(page = 0, size = 10, sort = "createdDate", direction = Direction.DESC) Pageable page,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        log.debug("get comments of post@" + id + ", page@" + page);
+        log.debug("get comments of post@{}, page@{}", id, page);
+
+        if (!count) {
+            Slice<CommentDetails> commentsOfPost = blogService.sliceCommentsByPostId(id, page);
+
+            return ETags.respond(ifNoneMatch, ETags.ofPage(ETags.COMMENTS, commentsOfPost), commentsOfPost);
+        }
 
         Page<CommentDetails> commentsOfPost = blogService.findCommentsByPostId(id, page);
 
-        log.debug("get post comment size @" + commentsOfPost.getTotalElements());
+        log.debug("get post comment size @{}", commentsOfPost.getTotalElements());
+
+        return ETags.respond(ifNoneMatch, ETags.ofPage(ETags.COMMENTS, commentsOfPost), commentsOfPost);
+    }
+
+    @RequestMapping(value = "/{id}/comments", method = RequestMethod.GET, params = Constants.PARAM_CURSOR)
+    @ResponseBody
+    public ResponseEntity<CursorPage<CommentDetails>> getCommentsOfPostByCursor(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("get comments of post@{}, after@{}, before@{}", id, after, before);
 
-        return new ResponseEntity<>(commentsOfPost, HttpStatus.OK);
+        CursorPage<CommentDetails> commentsOfPost = blogService.findCommentsByPostIdAndCursor(id, after, before,
+                Math.min(size, Constants.MAX_CURSOR_PAGE_SIZE));
+
+        return ETags.respond(ifNoneMatch, ETags.ofList(ETags.COMMENTS, commentsOfPost.getContent(),
+                commentsOfPost.getNext(), commentsOfPost.getPrevious()), commentsOfPost);
+    }
+
+    @RequestMapping(value = "/{id}/comments/batch", method = RequestMethod.POST)
+    @ResponseBody
+    public ResponseEntity<List<BatchItemResult>> createCommentsOfPost(
+            @PathVariable("id") Long id, @RequestBody List<CommentForm> forms) {
+
+        log.debug("new comments of post@{} in batch @{}", id, forms.size());
+
+        List<CommentForm> valid = new ArrayList<>(forms.size());
+        BatchItemResult[] results = validate(forms, valid, "comment");
+
+        return new ResponseEntity<>(merge(results, blogService.saveCommentsOfPost(id, valid)), HttpStatus.OK);
     }
 
     @RequestMapping(value = "/{id}/comments", method = RequestMethod.POST)
@@ -144,13 +290,74 @@ public class PostController {
     public ResponseEntity<Void> createCommentOfPost(
             @PathVariable("id") Long id, @RequestBody CommentForm comment) {
 
-        log.debug("new comment of post@" + id + ", comment" + comment);
+        log.debug("new comment of post@{}, comment{}", id, comment);
 
         CommentDetails saved = blogService.saveCommentOfPost(id, comment);
 
-        log.debug("saved comment @" + saved.getId());
+        log.debug("saved comment @{}", saved.getId());
 
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    @RequestMapping(value = "/{id}/comments", method = RequestMethod.POST, params = Constants.PARAM_ASYNC + "=true")
+    @ResponseBody
+    @ApiOperation(value = "Queue a comment of the post")
+    @ApiResponses(
+            value = {
+                @ApiResponse(code = 202, message = "the comment is queued and will be written shortly"),
+                @ApiResponse(code = 429, message = "the queue is full, retry later")
+            }
+    )
+    public ResponseEntity<IngestionReceipt> queueCommentOfPost(
+            @PathVariable("id") Long id, @RequestBody @Valid CommentForm comment) {
+
+        log.debug("queue comment of post@{}, comment{}", id, comment);
+
+        return new ResponseEntity<>(blogService.queueCommentOfPost(id, comment), HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * validates every form in one pass, collecting the valid ones.
+     *
+     * @return the results of the invalid forms at their index, null elsewhere
+     */
+    private <T> BatchItemResult[] validate(List<T> forms, List<T> valid, String name) {
+        Assert.isTrue(forms.size() <= Constants.MAX_BATCH_SIZE,
+                "a batch can not have more than " + Constants.MAX_BATCH_SIZE + " items");
+
+        BatchItemResult[] results = new BatchItemResult[forms.size()];
+        for (int i = 0; i < forms.size(); i++) {
+            T form = forms.get(i);
+            BindingResult errors = new BeanPropertyBindingResult(form, name);
+            if (form != null) {
+                validator.validate(form, errors);
+            }
+
+            if (form == null || errors.hasErrors()) {
+                ResponseMessage alert = new ResponseMessage(ResponseMessage.Type.DANGER, ApiErrors.INVALID_REQUEST,
+                        "invalid " + name);
+                errors.getFieldErrors().forEach(e -> alert.addError(e.getField(), e.getCode(), e.getDefaultMessage()));
+                results[i] = BatchItemResult.invalid(alert);
+            } else {
+                valid.add(form);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * fills the gaps left by {@link #validate} with the results of the saved
+     * forms, which come in the same order.
+     */
+    private static List<BatchItemResult> merge(BatchItemResult[] results, List<BatchItemResult> saved) {
+        Iterator<BatchItemResult> savedResults = saved.iterator();
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = savedResults.next();
+            }
+            results[i].setIndex(i);
+        }
+        return Arrays.asList(results);
+    }
+
 }
@@ -0,0 +1,74 @@
+package fr.example.springboot.web.controller.user;
+
+import javax.inject.Inject;
+import javax.validation.Valid;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import fr.example.springboot.Constants;
+import fr.example.springboot.exception.InvalidRequestException;
+import fr.example.springboot.security.JwtTokenService;
+import fr.example.springboot.security.UserPrincipal;
+import fr.example.springboot.web.dto.LoginForm;
+import fr.example.springboot.web.dto.RefreshTokenForm;
+import fr.example.springboot.web.dto.TokenDetails;
+
+/**
+ * Exchanges the credentials for bearer tokens.
+ *
+ * @author Nour LABIHI
+ */
+@RestController
+@RequestMapping(value = Constants.URI_API_PREFIX + Constants.URI_AUTH)
+public class AuthenticationController {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationController.class);
+
+    @Inject
+    private AuthenticationManager authenticationManager;
+
+    @Inject
+    private JwtTokenService jwtTokenService;
+
+    @RequestMapping(value = "/token", method = RequestMethod.POST)
+    @ResponseBody
+    public ResponseEntity<TokenDetails> token(@RequestBody @Valid LoginForm form, BindingResult errors) {
+
+        log.debug("issue token for @{}", form);
+
+        if (errors.hasErrors()) {
+            throw new InvalidRequestException(errors);
+        }
+
+        Authentication authentication = authenticationManager
+                .authenticate(new UsernamePasswordAuthenticationToken(form.getUsername(), form.getPassword()));
+
+        return new ResponseEntity<>(jwtTokenService.issue((UserPrincipal) authentication.getPrincipal()), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/refresh", method = RequestMethod.POST)
+    @ResponseBody
+    public ResponseEntity<TokenDetails> refresh(@RequestBody @Valid RefreshTokenForm form, BindingResult errors) {
+
+        log.debug("refresh token");
+
+        if (errors.hasErrors()) {
+            throw new InvalidRequestException(errors);
+        }
+
+        return new ResponseEntity<>(jwtTokenService.refresh(form.getRefreshToken()), HttpStatus.OK);
+    }
+
+}
@@ -15,12 +15,13 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
 import fr.example.springboot.Constants;
-import fr.example.springboot.domain.User;
 import fr.example.springboot.exception.InvalidRequestException;
 import fr.example.springboot.security.CurrentUser;
+import fr.example.springboot.security.UserPrincipal;
 import fr.example.springboot.service.UserService;
 import fr.example.springboot.web.dto.PasswordForm;
 import fr.example.springboot.web.dto.ProfileForm;
+import fr.example.springboot.web.dto.ProfilePatch;
 import fr.example.springboot.web.dto.UserDetails;
 
 /**
@@ -39,13 +40,13 @@ public class CurrentUserController {
 
     @RequestMapping(value = "", method = RequestMethod.GET)
     @ResponseBody
-    public UserDetails currentUser(@CurrentUser User user) {
+    public UserDetails currentUser(@CurrentUser UserPrincipal user) {
 
         log.debug("get current user info");
 
         UserDetails details = userService.findUserById(user.getId());
 
-        log.debug("current user value @" + details);
+        log.debug("current user value @{}", details);
 
         return details;
     }
@@ -53,11 +54,11 @@ public class CurrentUserController {
     @RequestMapping(value = "/password", method = RequestMethod.PUT)
     @ResponseBody
     public ResponseEntity<Void> changePassword(
-            @CurrentUser User user,
+            @CurrentUser UserPrincipal user,
             @RequestBody @Valid PasswordForm fm,
             BindingResult result) {
 
-        log.debug("change password of user@" + fm);
+        log.debug("change password of user@{}", fm);
         
         if (result.hasErrors()) {
             throw new InvalidRequestException(result);
@@ -71,11 +72,11 @@ public class CurrentUserController {
     @RequestMapping(value = "/profile", method = RequestMethod.PUT)
     @ResponseBody
     public ResponseEntity<Void> updateProfile(
-            @CurrentUser User user,
+            @CurrentUser UserPrincipal user,
             @RequestBody @Valid ProfileForm fm,
             BindingResult result) {
 
-        log.debug("update user profile data @" + fm);
+        log.debug("update user profile data @{}", fm);
 
         if (result.hasErrors()) {
             throw new InvalidRequestException(result);
@@ -86,4 +87,22 @@ public class CurrentUserController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @RequestMapping(value = "/profile", method = RequestMethod.PATCH)
+    @ResponseBody
+    public ResponseEntity<Void> patchProfile(
+            @CurrentUser UserPrincipal user,
+            @RequestBody @Valid ProfilePatch patch,
+            BindingResult result) {
+
+        log.debug("patch user profile data @{}", patch);
+
+        if (result.hasErrors()) {
+            throw new InvalidRequestException(result);
+        }
+
+        userService.patchProfile(user.getId(), patch);
+
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
 }
@@ -40,7 +40,7 @@ public class SignupController {
             @RequestBody @Valid SignupForm form,
             BindingResult errors,
             HttpServletRequest req) {
-        log.debug("signup data@" + form);
+        log.debug("signup data@{}", form);
 
         if (errors.hasErrors()) {
             throw new InvalidRequestException(errors);
@@ -2,9 +2,12 @@ package fr.example.springboot.web.controller.user;
 
 import fr.example.springboot.Constants;
 import fr.example.springboot.exception.InvalidRequestException;
+import fr.example.springboot.web.dto.CursorPage;
 import fr.example.springboot.web.dto.UserDetails;
 import fr.example.springboot.web.dto.UserForm;
+import fr.example.springboot.web.dto.UserPatch;
 import fr.example.springboot.service.UserService;
+import fr.example.springboot.web.ETags;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
@@ -12,6 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpHeaders;
@@ -20,6 +24,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -39,29 +44,64 @@ public class UserController {
 
     @RequestMapping(value = "/{id}", method = RequestMethod.GET)
     @ResponseBody
-    public ResponseEntity<UserDetails> getUser(@PathVariable("id") Long id) {
+    public ResponseEntity<UserDetails> getUser(@PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
-        log.debug("get user data @" + id);
+        log.debug("get user data @{}", id);
+
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(ETags.USER, id, userService.findUserVersion(id));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+        }
 
         UserDetails user = userService.findUserById(id);
 
-        return new ResponseEntity<>(user, HttpStatus.OK);
+        return ETags.respond(null, ETags.of(ETags.USER, user), user);
     }
 
     @RequestMapping(value = "", method = RequestMethod.GET)
     @ResponseBody
-    public Page<UserDetails> allUsers(
+    public ResponseEntity<Slice<UserDetails>> allUsers(
             @RequestParam(required = false, value = "q") String q,
             @RequestParam(required = false, value = "role") String role,
-            @PageableDefault(page = 0, size = 10, sort = "createdDate", direction = Sort.Direction.DESC) Pageable page) {
+            @RequestParam(value = "count", defaultValue = "true") boolean count,
+            @PageableDefault(page = 0, size = 10, sort = "createdDate", direction = Sort.Direction.DESC) Pageable page,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("fetch all users...@{}, role @{}", q, role);
 
-        log.debug("fetch all users...@" + q + ", role @" + role);
+        if (!count) {
+            Slice<UserDetails> users = userService.sliceAll(q, role, page);
+
+            return ETags.respond(ifNoneMatch, ETags.ofPage(ETags.USERS, users), users);
+        }
 
         Page<UserDetails> users = userService.findAll(q, role, page);
 
-        log.debug("count of fetched users @" + users.getTotalElements());
+        log.debug("count of fetched users @{}", users.getTotalElements());
+
+        return ETags.respond(ifNoneMatch, ETags.ofPage(ETags.USERS, users), users);
+    }
+
+    @RequestMapping(value = "", method = RequestMethod.GET, params = Constants.PARAM_CURSOR)
+    @ResponseBody
+    public ResponseEntity<CursorPage<UserDetails>> allUsersByCursor(
+            @RequestParam(required = false, value = "q") String q,
+            @RequestParam(required = false, value = "role") String role,
+            @RequestParam(required = false, value = "after") String after,
+            @RequestParam(required = false, value = "before") String before,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("fetch users by cursor...@{}, role @{}, after @{}, before @{}", q, role, after, before);
 
-        return users;
+        CursorPage<UserDetails> users = userService.findAllByCursor(q, role, after, before,
+                Math.min(size, Constants.MAX_CURSOR_PAGE_SIZE));
+
+        return ETags.respond(ifNoneMatch,
+                ETags.ofList(ETags.USERS, users.getContent(), users.getNext(), users.getPrevious()), users);
     }
 
     @RequestMapping(value = "", method = RequestMethod.POST)
@@ -70,7 +110,7 @@ public class UserController {
             BindingResult errors,
             HttpServletRequest req) {
 
-        log.debug("save user data @" + form);
+        log.debug("save user data @{}", form);
 
         if (errors.hasErrors()) {
             throw new InvalidRequestException(errors);
@@ -78,7 +118,7 @@ public class UserController {
 
         UserDetails userDetails = userService.saveUser(form);
 
-        log.debug("created user@" + userDetails);
+        log.debug("created user@{}", userDetails);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setLocation(
@@ -95,18 +135,34 @@ public class UserController {
     @ResponseBody
     public ResponseEntity<Boolean> checkUsername(@RequestParam("username") String username) {
 
-        log.debug("check username existance by username @" + username);
+        log.debug("check username existance by username @{}", username);
 
         UserDetails userDetails = userService.findUserByUsername(username);
         boolean found = (userDetails != null);
         return new ResponseEntity<>(found, HttpStatus.OK);
     }
 
+    @RequestMapping(value = "/{id}", method = RequestMethod.PATCH)
+    @ResponseBody
+    public ResponseEntity<Void> patchUser(@PathVariable("id") Long id, @RequestBody @Valid UserPatch patch,
+            BindingResult errors) {
+
+        log.debug("patch user by id @{}, patch @{}", id, patch);
+
+        if (errors.hasErrors()) {
+            throw new InvalidRequestException(errors);
+        }
+
+        userService.patchUser(id, patch);
+
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
     @ResponseBody
     public ResponseEntity<Void> deleteUser(@PathVariable("id") Long id) {
 
-        log.debug("delete user by id @" + id);
+        log.debug("delete user by id @{}", id);
 
         userService.deleteUser(id);
 
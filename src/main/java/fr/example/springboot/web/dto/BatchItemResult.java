@@ -0,0 +1,96 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+import fr.example.springboot.ApiErrors;
+
+/**
+ * outcome of one item of a batch request, in the order of the request.
+ *
+ * @author Nour LABIHI
+ */
+public class BatchItemResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String FAILED_TEXT = "the item could not be saved, it can be sent again.";
+
+    public enum Status {
+
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private ResponseMessage message;
+
+    public BatchItemResult() {
+    }
+
+    public BatchItemResult(Status status, Long id, ResponseMessage message) {
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BatchItemResult created(Long id) {
+        return new BatchItemResult(Status.CREATED, id, null);
+    }
+
+    public static BatchItemResult invalid(ResponseMessage message) {
+        return new BatchItemResult(Status.INVALID, null, message);
+    }
+
+    /**
+     * the item was valid but its chunk could not be saved. The cause is only
+     * logged, the client gets the same message for any failure.
+     */
+    public static BatchItemResult failed() {
+        return new BatchItemResult(Status.FAILED, null,
+                new ResponseMessage(ResponseMessage.Type.DANGER, ApiErrors.BATCH_FAILED, FAILED_TEXT));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ResponseMessage getMessage() {
+        return message;
+    }
+
+    public void setMessage(ResponseMessage message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResult{" + "index=" + index + ", status=" + status + ", id=" + id + '}';
+    }
+
+}
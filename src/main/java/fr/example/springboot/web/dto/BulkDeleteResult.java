@@ -0,0 +1,31 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * number of entities removed by a bulk delete.
+ *
+ * @author Nour LABIHI
+ */
+public class BulkDeleteResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int deleted;
+
+    public BulkDeleteResult() {
+    }
+
+    public BulkDeleteResult(int deleted) {
+        this.deleted = deleted;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+
+}
@@ -0,0 +1,85 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * hit/miss counters of a cache region
+ *
+ * @author Nour LABIHI
+ */
+public class CacheStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+
+    private long hits;
+
+    private long misses;
+
+    private long puts;
+
+    private long size;
+
+    public CacheStatistics() {
+    }
+
+    public CacheStatistics(String name, long hits, long misses, long puts, long size) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public void setPuts(long puts) {
+        this.puts = puts;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" + "name=" + name + ", hits=" + hits + ", misses=" + misses + ", puts=" + puts + ", size=" + size + '}';
+    }
+
+}
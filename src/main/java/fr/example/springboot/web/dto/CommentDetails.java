@@ -3,12 +3,14 @@ package fr.example.springboot.web.dto;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  *
  * @author Nour LABIHI
  *
  */
-public class CommentDetails implements Serializable {
+public class CommentDetails implements Serializable, Versioned {
 
     /**
      *
@@ -23,6 +25,23 @@ public class CommentDetails implements Serializable {
 
     private LocalDateTime createdDate;
 
+    private Long version;
+
+    public CommentDetails() {
+    }
+
+    /**
+     * used by the constructor projections of CommentRepository.
+     */
+    public CommentDetails(Long id, Long version, String content, LocalDateTime createdDate,
+            Long createdById, String createdByUsername, String createdByName) {
+        this.id = id;
+        this.version = version;
+        this.content = content;
+        this.createdDate = createdDate;
+        this.createdBy = SimpleUserDetails.of(createdById, createdByUsername, createdByName);
+    }
+
     public Long getId() {
         return id;
     }
@@ -31,6 +50,14 @@ public class CommentDetails implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getContent() {
         return content;
     }
@@ -55,6 +82,15 @@ public class CommentDetails implements Serializable {
         this.createdBy = createdBy;
     }
 
+    /**
+     * the author, whose renames do not bump the version of the comment.
+     */
+    @Override
+    @JsonIgnore
+    public long getUnversionedState() {
+        return SimpleUserDetails.hash(createdBy);
+    }
+
     @Override
     public String toString() {
         return "CommentDetails{" + "id=" + id + ", content=" + content + ", createdBy=" + createdBy + ", createdOn=" + createdDate + '}';
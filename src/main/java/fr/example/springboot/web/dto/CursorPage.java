@@ -0,0 +1,79 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page of a cursor paginated list, it only carries the cursors of the
+ * neighbour pages and no total count.
+ *
+ * @author Nour LABIHI
+ */
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<T> content;
+
+    private final String next;
+
+    private final String previous;
+
+    public CursorPage(List<T> content, String next, String previous) {
+        this.content = content;
+        this.next = next;
+        this.previous = previous;
+    }
+
+    /**
+     * builds the page from the rows of a seek query.
+     *
+     * @param rows the rows in query order, oldest first when reading backward
+     * @param hasMore whether the query found more rows after these ones
+     * @param backward whether the rows were read backward from a cursor
+     * @param fromCursor the cursor the query started from, or null
+     * @param cursorOf encodes the cursor of a row
+     */
+    public static <T> CursorPage<T> of(List<T> rows, boolean hasMore, boolean backward, String fromCursor,
+            Function<T, String> cursorOf) {
+        if (rows.isEmpty()) {
+            // past the end, or the rows were deleted: the same cursor leads back
+            return backward ? new CursorPage<>(Collections.emptyList(), fromCursor, null)
+                    : new CursorPage<>(Collections.emptyList(), null, fromCursor);
+        }
+
+        List<T> content = new ArrayList<>(rows);
+        if (backward) {
+            Collections.reverse(content);
+        }
+
+        String first = cursorOf.apply(content.get(0));
+        String last = cursorOf.apply(content.get(content.size() - 1));
+
+        if (backward) {
+            return new CursorPage<>(content, last, hasMore ? first : null);
+        }
+        return new CursorPage<>(content, hasMore ? last : null, fromCursor != null ? first : null);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public String getPrevious() {
+        return previous;
+    }
+
+    @Override
+    public String toString() {
+        return "CursorPage{" + "size=" + content.size() + ", next=" + next + ", previous=" + previous + '}';
+    }
+
+}
@@ -0,0 +1,81 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * traffic of one handler method: requests in flight, requests per second over
+ * the last minute, share of 5xx answers and the latencies per status class.
+ *
+ * @author Nour LABIHI
+ */
+public class EndpointMetrics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String handler;
+
+    private long inFlight;
+
+    private long requests;
+
+    private long errors;
+
+    private double ratePerSecond;
+
+    private List<LatencyMetrics> latencies = new ArrayList<>();
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public void setHandler(String handler) {
+        this.handler = handler;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(long inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public double getErrorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public List<LatencyMetrics> getLatencies() {
+        return latencies;
+    }
+
+    public void setLatencies(List<LatencyMetrics> latencies) {
+        this.latencies = latencies;
+    }
+
+}
@@ -0,0 +1,43 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * returned when a comment is queued for writing: the comment has no id yet,
+ * the provisional id identifies it in the logs until it is written.
+ *
+ * @author Nour LABIHI
+ */
+public class IngestionReceipt implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String provisionalId;
+
+    private Long postId;
+
+    public IngestionReceipt() {
+    }
+
+    public IngestionReceipt(String provisionalId, Long postId) {
+        this.provisionalId = provisionalId;
+        this.postId = postId;
+    }
+
+    public String getProvisionalId() {
+        return provisionalId;
+    }
+
+    public void setProvisionalId(String provisionalId) {
+        this.provisionalId = provisionalId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+}
@@ -0,0 +1,121 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * depth and throughput of the comment ingestion queue.
+ *
+ * @author Nour LABIHI
+ */
+public class IngestionStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int capacity;
+
+    private int depth;
+
+    private long accepted;
+
+    private long rejected;
+
+    private long committed;
+
+    private long failed;
+
+    /**
+     * comments accepted but still queued when the shutdown timed out
+     */
+    private long dropped;
+
+    private long batches;
+
+    private int lastBatchSize;
+
+    private int maxBatchSize;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(long committed) {
+        this.committed = committed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public void setLastBatchSize(int lastBatchSize) {
+        this.lastBatchSize = lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        return batches == 0 ? 0 : (double) committed / batches;
+    }
+
+}
@@ -0,0 +1,85 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * latency distribution of the requests of one endpoint answered with one
+ * status class, in milliseconds.
+ *
+ * @author Nour LABIHI
+ */
+public class LatencyMetrics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String status;
+
+    private long count;
+
+    private double mean;
+
+    private double p50;
+
+    private double p99;
+
+    private double p999;
+
+    private double max;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public void setP999(double p999) {
+        this.p999 = p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+}
@@ -0,0 +1,44 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * @author Nour LABIHI
+ *
+ */
+public class LoginForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @NotEmpty
+    private String username;
+
+    @NotNull
+    @NotEmpty
+    private String password;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    @Override
+    public String toString() {
+        return "LoginForm{" + "username=" + username + '}';
+    }
+
+}
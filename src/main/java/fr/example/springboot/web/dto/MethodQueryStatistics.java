@@ -0,0 +1,83 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * statements run by one service method over all the profiled requests,
+ * the statements of the nested calls included.
+ *
+ * @author Nour LABIHI
+ */
+public class MethodQueryStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String method;
+
+    private long calls;
+
+    private long statements;
+
+    private long entityLoads;
+
+    private double statementMillis;
+
+    private long maxStatements;
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public void setCalls(long calls) {
+        this.calls = calls;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public void setStatements(long statements) {
+        this.statements = statements;
+    }
+
+    public long getEntityLoads() {
+        return entityLoads;
+    }
+
+    public void setEntityLoads(long entityLoads) {
+        this.entityLoads = entityLoads;
+    }
+
+    public double getStatementMillis() {
+        return statementMillis;
+    }
+
+    public void setStatementMillis(double statementMillis) {
+        this.statementMillis = statementMillis;
+    }
+
+    public double getStatementsPerCall() {
+        return calls == 0 ? 0 : (double) statements / calls;
+    }
+
+    /**
+     * the most statements of one request, divided by the calls of the method
+     * in that request.
+     */
+    public long getMaxStatements() {
+        return maxStatements;
+    }
+
+    public void setMaxStatements(long maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+}
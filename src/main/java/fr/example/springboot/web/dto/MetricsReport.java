@@ -0,0 +1,43 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * request metrics per handler method, and the statements behind them.
+ *
+ * @author Nour LABIHI
+ */
+public class MetricsReport implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<EndpointMetrics> endpoints;
+
+    private QueryStatistics queries;
+
+    public MetricsReport() {
+    }
+
+    public MetricsReport(List<EndpointMetrics> endpoints, QueryStatistics queries) {
+        this.endpoints = endpoints;
+        this.queries = queries;
+    }
+
+    public List<EndpointMetrics> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<EndpointMetrics> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public QueryStatistics getQueries() {
+        return queries;
+    }
+
+    public void setQueries(QueryStatistics queries) {
+        this.queries = queries;
+    }
+
+}
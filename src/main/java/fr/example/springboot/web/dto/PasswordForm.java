@@ -38,8 +38,7 @@ public class PasswordForm implements Serializable {
 
     @Override
     public String toString() {
-        return "PasswordForm [oldPassword=" + oldPassword + ", newPassword="
-                + newPassword + "]";
+        return "PasswordForm []";
     }
 
 }
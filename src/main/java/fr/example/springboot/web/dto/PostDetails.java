@@ -3,12 +3,16 @@ package fr.example.springboot.web.dto;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import fr.example.springboot.domain.Post;
+
 /**
  *
  * @author Nour LABIHI
  *
  */
-public class PostDetails implements Serializable {
+public class PostDetails implements Serializable, Versioned {
 
     /**
      *
@@ -31,6 +35,34 @@ public class PostDetails implements Serializable {
 
     private LocalDateTime lastModifiedDate;
 
+    private Long version;
+
+    private long commentCount;
+
+    public PostDetails() {
+    }
+
+    /**
+     * used by the constructor projections of PostRepository, the authors are
+     * flattened into their id, username and name columns.
+     */
+    public PostDetails(Long id, Long version, String title, String content, Post.Status status,
+            LocalDateTime createdDate, LocalDateTime lastModifiedDate,
+            long commentCount,
+            Long createdById, String createdByUsername, String createdByName,
+            Long lastModifiedById, String lastModifiedByUsername, String lastModifiedByName) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.content = content;
+        this.status = status == null ? null : status.toString();
+        this.createdDate = createdDate;
+        this.lastModifiedDate = lastModifiedDate;
+        this.commentCount = commentCount;
+        this.createdBy = SimpleUserDetails.of(createdById, createdByUsername, createdByName);
+        this.lastModifiedBy = SimpleUserDetails.of(lastModifiedById, lastModifiedByUsername, lastModifiedByName);
+    }
+
     public Long getId() {
         return id;
     }
@@ -38,6 +70,33 @@ public class PostDetails implements Serializable {
     public void setId(Long id) {
         this.id = id;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
+    /**
+     * the comment count and the authors, whose renames do not bump the version
+     * of the post.
+     */
+    @Override
+    @JsonIgnore
+    public long getUnversionedState() {
+        long state = Versioned.combine(commentCount, SimpleUserDetails.hash(createdBy));
+        return Versioned.combine(state, SimpleUserDetails.hash(lastModifiedBy));
+    }
     
     public String getTitle() {
         return title;
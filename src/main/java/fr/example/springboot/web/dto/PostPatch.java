@@ -0,0 +1,63 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * partial update of a post: the fields left null are not changed. The version
+ * is the one the client read, the update is rejected if the post changed
+ * since.
+ *
+ * @author Nour LABIHI
+ */
+public class PostPatch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long version;
+
+    /**
+     * the length of the title column
+     */
+    @Size(min = 1, max = 255)
+    private String title;
+
+    /**
+     * the patch is a bulk update, the limit of the entity is not checked
+     */
+    @Size(min = 1, max = 2000)
+    private String content;
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    @Override
+    public String toString() {
+        return "PostPatch{" + "version=" + version + ", title=" + title + ", content=" + content + '}';
+    }
+
+}
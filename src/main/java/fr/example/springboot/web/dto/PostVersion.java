@@ -0,0 +1,72 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * what identifies the representation of a post: its version, and the state
+ * it embeds that is updated without bumping the version, its comment count
+ * and the versions of its authors, whose names it shows.
+ *
+ * @author Nour LABIHI
+ */
+public class PostVersion implements Serializable, Versioned {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final Long version;
+
+    private final long commentCount;
+
+    private final Long createdByVersion;
+
+    private final Long lastModifiedByVersion;
+
+    /**
+     * used by the constructor projection of PostRepository, the author
+     * versions are null for the posts without author.
+     */
+    public PostVersion(Long id, Long version, long commentCount, Long createdByVersion, Long lastModifiedByVersion) {
+        this.id = id;
+        this.version = version;
+        this.commentCount = commentCount;
+        this.createdByVersion = createdByVersion;
+        this.lastModifiedByVersion = lastModifiedByVersion;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public Long getCreatedByVersion() {
+        return createdByVersion;
+    }
+
+    public Long getLastModifiedByVersion() {
+        return lastModifiedByVersion;
+    }
+
+    @Override
+    public long getUnversionedState() {
+        long state = Versioned.combine(commentCount, createdByVersion == null ? 0 : createdByVersion + 1);
+        return Versioned.combine(state, lastModifiedByVersion == null ? 0 : lastModifiedByVersion + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "PostVersion{" + "id=" + id + ", version=" + version + ", commentCount=" + commentCount
+                + ", createdByVersion=" + createdByVersion + ", lastModifiedByVersion=" + lastModifiedByVersion + '}';
+    }
+
+}
@@ -0,0 +1,60 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.hibernate.validator.constraints.Email;
+
+/**
+ * partial update of a profile: the fields left null are not changed. The
+ * version is the one the client read, the update is rejected if the user
+ * changed since.
+ *
+ * @author Nour LABIHI
+ */
+public class ProfilePatch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long version;
+
+    @Size(min = 1)
+    private String name;
+
+    @Size(min = 1)
+    @Email
+    private String email;
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    @Override
+    public String toString() {
+        return "ProfilePatch{" + "version=" + version + ", name=" + name + ", email=" + email + '}';
+    }
+
+}
@@ -0,0 +1,201 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * global statistics of Hibernate since the start, and the statements of the
+ * requests seen by the query profiler.
+ *
+ * @author Nour LABIHI
+ */
+public class QueryStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long sessionsOpened;
+
+    private long transactions;
+
+    private long statementsPrepared;
+
+    private long queriesExecuted;
+
+    private long queryMaxMillis;
+
+    private String slowestQuery;
+
+    private long entitiesLoaded;
+
+    private long entitiesFetched;
+
+    private long collectionsLoaded;
+
+    private long collectionsFetched;
+
+    private long secondLevelCacheHits;
+
+    private long secondLevelCacheMisses;
+
+    private long optimisticFailures;
+
+    private long profiledRequests;
+
+    private long profiledStatements;
+
+    private long flaggedRequests;
+
+    private long maxStatementsPerRequest;
+
+    private List<MethodQueryStatistics> methods = new ArrayList<>();
+
+    public long getSessionsOpened() {
+        return sessionsOpened;
+    }
+
+    public void setSessionsOpened(long sessionsOpened) {
+        this.sessionsOpened = sessionsOpened;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    public long getStatementsPrepared() {
+        return statementsPrepared;
+    }
+
+    public void setStatementsPrepared(long statementsPrepared) {
+        this.statementsPrepared = statementsPrepared;
+    }
+
+    public long getQueriesExecuted() {
+        return queriesExecuted;
+    }
+
+    public void setQueriesExecuted(long queriesExecuted) {
+        this.queriesExecuted = queriesExecuted;
+    }
+
+    public long getQueryMaxMillis() {
+        return queryMaxMillis;
+    }
+
+    public void setQueryMaxMillis(long queryMaxMillis) {
+        this.queryMaxMillis = queryMaxMillis;
+    }
+
+    public String getSlowestQuery() {
+        return slowestQuery;
+    }
+
+    public void setSlowestQuery(String slowestQuery) {
+        this.slowestQuery = slowestQuery;
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public void setEntitiesLoaded(long entitiesLoaded) {
+        this.entitiesLoaded = entitiesLoaded;
+    }
+
+    /**
+     * entities loaded on their own, by a lazy association or a getOne, the
+     * count to watch for N+1 selects.
+     */
+    public long getEntitiesFetched() {
+        return entitiesFetched;
+    }
+
+    public void setEntitiesFetched(long entitiesFetched) {
+        this.entitiesFetched = entitiesFetched;
+    }
+
+    public long getCollectionsLoaded() {
+        return collectionsLoaded;
+    }
+
+    public void setCollectionsLoaded(long collectionsLoaded) {
+        this.collectionsLoaded = collectionsLoaded;
+    }
+
+    public long getCollectionsFetched() {
+        return collectionsFetched;
+    }
+
+    public void setCollectionsFetched(long collectionsFetched) {
+        this.collectionsFetched = collectionsFetched;
+    }
+
+    public long getSecondLevelCacheHits() {
+        return secondLevelCacheHits;
+    }
+
+    public void setSecondLevelCacheHits(long secondLevelCacheHits) {
+        this.secondLevelCacheHits = secondLevelCacheHits;
+    }
+
+    public long getSecondLevelCacheMisses() {
+        return secondLevelCacheMisses;
+    }
+
+    public void setSecondLevelCacheMisses(long secondLevelCacheMisses) {
+        this.secondLevelCacheMisses = secondLevelCacheMisses;
+    }
+
+    public long getOptimisticFailures() {
+        return optimisticFailures;
+    }
+
+    public void setOptimisticFailures(long optimisticFailures) {
+        this.optimisticFailures = optimisticFailures;
+    }
+
+    public long getProfiledRequests() {
+        return profiledRequests;
+    }
+
+    public void setProfiledRequests(long profiledRequests) {
+        this.profiledRequests = profiledRequests;
+    }
+
+    public long getProfiledStatements() {
+        return profiledStatements;
+    }
+
+    public void setProfiledStatements(long profiledStatements) {
+        this.profiledStatements = profiledStatements;
+    }
+
+    public long getFlaggedRequests() {
+        return flaggedRequests;
+    }
+
+    public void setFlaggedRequests(long flaggedRequests) {
+        this.flaggedRequests = flaggedRequests;
+    }
+
+    public long getMaxStatementsPerRequest() {
+        return maxStatementsPerRequest;
+    }
+
+    public void setMaxStatementsPerRequest(long maxStatementsPerRequest) {
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+    }
+
+    public List<MethodQueryStatistics> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(List<MethodQueryStatistics> methods) {
+        this.methods = methods;
+    }
+
+}
@@ -0,0 +1,27 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * @author Nour LABIHI
+ *
+ */
+public class RefreshTokenForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @NotEmpty
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+}
@@ -41,7 +41,7 @@ public class SignupForm implements Serializable {
 
     @Override
     public String toString() {
-        return "SignupForm{" + "username=" + username + ", password=" + password + '}';
+        return "SignupForm{" + "username=" + username + '}';
     }
 
 }
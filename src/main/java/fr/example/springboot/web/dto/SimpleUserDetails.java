@@ -2,6 +2,7 @@
 package fr.example.springboot.web.dto;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  *
@@ -17,6 +18,37 @@ public class SimpleUserDetails implements Serializable {
 
     private String name;
 
+    public SimpleUserDetails() {
+    }
+
+    public SimpleUserDetails(Long id, String username, String name) {
+        this.id = id;
+        this.username = username;
+        this.name = (name == null || name.trim().length() == 0) ? username : name;
+    }
+
+    /**
+     * builds the author of a projection row, null when the row has no author
+     * (left join).
+     */
+    public static SimpleUserDetails of(Long id, String username, String name) {
+        if (id == null) {
+            return null;
+        }
+        return new SimpleUserDetails(id, username, name);
+    }
+
+    /**
+     * a hash of the fields, for the state of the representations which embed
+     * the user without its version; 0 for no user.
+     */
+    public static long hash(SimpleUserDetails user) {
+        if (user == null) {
+            return 0;
+        }
+        return Objects.hash(user.id, user.username, user.name);
+    }
+
     public String getName() {
         return name;
     }
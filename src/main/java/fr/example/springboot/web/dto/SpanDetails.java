@@ -0,0 +1,95 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * one span of a trace, timed from the start of the request.
+ *
+ * @author Nour LABIHI
+ */
+public class SpanDetails implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String spanId;
+
+    private String parentSpanId;
+
+    private String name;
+
+    private String kind;
+
+    private double offsetMillis;
+
+    private double durationMillis;
+
+    private String error;
+
+    private Map<String, String> attributes;
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public void setSpanId(String spanId) {
+        this.spanId = spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public void setParentSpanId(String parentSpanId) {
+        this.parentSpanId = parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public double getOffsetMillis() {
+        return offsetMillis;
+    }
+
+    public void setOffsetMillis(double offsetMillis) {
+        this.offsetMillis = offsetMillis;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(double durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(Map<String, String> attributes) {
+        this.attributes = attributes;
+    }
+
+}
@@ -0,0 +1,67 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+
+/**
+ * access and refresh tokens returned on login.
+ *
+ * @author Nour LABIHI
+ */
+public class TokenDetails implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String accessToken;
+
+    private String refreshToken;
+
+    private String tokenType;
+
+    private long expiresIn;
+
+    public TokenDetails() {
+    }
+
+    public TokenDetails(String accessToken, String refreshToken, String tokenType, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.tokenType = tokenType;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    /**
+     * lifetime of the access token, in seconds
+     */
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+}
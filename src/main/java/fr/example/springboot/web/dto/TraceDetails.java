@@ -0,0 +1,103 @@
+package fr.example.springboot.web.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * one traced request: the root span, and its children when the trace is
+ * fetched by id.
+ *
+ * @author Nour LABIHI
+ */
+public class TraceDetails implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String traceId;
+
+    private String name;
+
+    private LocalDateTime startDate;
+
+    private double durationMillis;
+
+    private String error;
+
+    private int spanCount;
+
+    private int droppedSpans;
+
+    private List<SpanDetails> spans = new ArrayList<>();
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public void setTraceId(String traceId) {
+        this.traceId = traceId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDateTime startDate) {
+        this.startDate = startDate;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(double durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    public void setSpanCount(int spanCount) {
+        this.spanCount = spanCount;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public void setDroppedSpans(int droppedSpans) {
+        this.droppedSpans = droppedSpans;
+    }
+
+    public List<SpanDetails> getSpans() {
+        return spans;
+    }
+
+    public void setSpans(List<SpanDetails> spans) {
+        this.spans = spans;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceDetails{" + "traceId=" + traceId + ", name=" + name + ", durationMillis=" + durationMillis + '}';
+    }
+
+}
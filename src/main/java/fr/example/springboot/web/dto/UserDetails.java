@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
  *
  * @author Nour LABIHI
  */
-public class UserDetails implements Serializable {
+public class UserDetails implements Serializable, Versioned {
     private static final long serialVersionUID = 1L;
     
     private Long id;
@@ -23,6 +23,7 @@ public class UserDetails implements Serializable {
     
     private LocalDateTime createdDate;
 
+    private Long version;
     
     public String getName() {
         return name;
@@ -71,6 +72,14 @@ public class UserDetails implements Serializable {
     public void setCreatedDate(LocalDateTime createdDate) {
         this.createdDate = createdDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
    
     @Override
     public String toString() {
@@ -74,7 +74,7 @@ public class UserForm implements Serializable {
 
     @Override
     public String toString() {
-        return "UserForm{" + "username=" + username + ", password=" + password + ", name=" + name + ", email=" + email + ", role=" + role + '}';
+        return "UserForm{" + "username=" + username + ", name=" + name + ", email=" + email + ", role=" + role + '}';
     }
 
 }
@@ -0,0 +1,31 @@
+package fr.example.springboot.web.dto;
+
+import javax.validation.constraints.Size;
+
+/**
+ * partial update of a user by an administrator, the profile and the role.
+ *
+ * @author Nour LABIHI
+ */
+public class UserPatch extends ProfilePatch {
+
+    private static final long serialVersionUID = 1L;
+
+    @Size(min = 1)
+    private String role;
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPatch{" + "version=" + getVersion() + ", name=" + getName() + ", email=" + getEmail()
+                + ", role=" + role + '}';
+    }
+
+}
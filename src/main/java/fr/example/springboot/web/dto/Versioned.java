@@ -0,0 +1,32 @@
+package fr.example.springboot.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * a representation of an entity at a given version, used to build its ETag.
+ *
+ * @author Nour LABIHI
+ */
+public interface Versioned {
+
+    Long getId();
+
+    Long getVersion();
+
+    /**
+     * part of the representation that changes without bumping the version,
+     * such as a denormalized counter, 0 when there is none.
+     */
+    @JsonIgnore
+    default long getUnversionedState() {
+        return 0;
+    }
+
+    /**
+     * adds a value to an unversioned state.
+     */
+    static long combine(long state, long value) {
+        return state * 1000003L + value;
+    }
+
+}
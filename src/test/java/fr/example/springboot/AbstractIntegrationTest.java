@@ -0,0 +1,41 @@
+package fr.example.springboot;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+/**
+ * Base of the tests run against the whole application on the in-memory H2
+ * database of the dev profile. The context is shared by all the subclasses.
+ *
+ * @author Nour LABIHI
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(classes = Application.class)
+@WebAppConfiguration
+public abstract class AbstractIntegrationTest {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    protected SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    protected Statistics statistics() {
+        return sessionFactory().getStatistics();
+    }
+
+    /**
+     * a value no other test uses, for the unique columns such as the username
+     */
+    protected static String unique(String prefix) {
+        return prefix + System.nanoTime();
+    }
+}
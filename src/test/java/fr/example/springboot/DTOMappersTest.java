@@ -0,0 +1,185 @@
+package fr.example.springboot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+import org.modelmapper.ModelMapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.User;
+import fr.example.springboot.web.dto.CommentDetails;
+import fr.example.springboot.web.dto.CommentForm;
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostForm;
+import fr.example.springboot.web.dto.ProfileForm;
+import fr.example.springboot.web.dto.SignupForm;
+import fr.example.springboot.web.dto.SimpleUserDetails;
+import fr.example.springboot.web.dto.UserDetails;
+import fr.example.springboot.web.dto.UserForm;
+
+/**
+ * Checks each mapper of {@link DTOMappers} against the ModelMapper output it
+ * replaced: the DTOs must serialize to the same JSON, the entities built from
+ * the forms must hold the same fields.
+ *
+ * @author Nour LABIHI
+ */
+public class DTOMappersTest {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private final ObjectMapper objectMapper = new Application().objectMapperBuilder().build();
+
+    @Test
+    public void postToPostDetails() throws Exception {
+        Post post = post(user(1L, "author", "Author"), user(2L, "editor", null));
+
+        assertSameJson(post, PostDetails.class);
+    }
+
+    @Test
+    public void postWithoutAuthorsToPostDetails() throws Exception {
+        assertSameJson(post(null, null), PostDetails.class);
+    }
+
+    @Test
+    public void proxiedPostToPostDetails() throws Exception {
+        Post proxy = new Post() {
+
+            private static final long serialVersionUID = 1L;
+        };
+        proxy.setId(7L);
+        proxy.setTitle("proxied");
+        proxy.setCreatedBy(user(1L, "author", "Author"));
+
+        assertThat(DTOMappers.find(proxy.getClass(), PostDetails.class)).isNotNull();
+        assertSameJson(proxy, PostDetails.class);
+    }
+
+    @Test
+    public void commentToCommentDetails() throws Exception {
+        Comment comment = new Comment();
+        comment.setId(3L);
+        comment.setVersion(1L);
+        comment.setContent("a comment");
+        comment.setCreatedDate(LocalDateTime.of(2016, 1, 2, 3, 4, 5));
+        comment.setCreatedBy(user(1L, "author", "Author"));
+        comment.setPost(post(null, null));
+
+        assertSameJson(comment, CommentDetails.class);
+    }
+
+    @Test
+    public void userToUserDetails() throws Exception {
+        assertSameJson(user(1L, "author", "Author"), UserDetails.class);
+    }
+
+    @Test
+    public void userWithoutNameToSimpleUserDetails() throws Exception {
+        assertSameJson(user(1L, "author", " "), SimpleUserDetails.class);
+    }
+
+    @Test
+    public void postFormToPost() {
+        PostForm form = new PostForm();
+        form.setTitle("title");
+        form.setContent("content");
+
+        assertSameEntity(form, Post.class);
+    }
+
+    @Test
+    public void commentFormToComment() {
+        CommentForm form = new CommentForm();
+        form.setContent("content");
+
+        assertSameEntity(form, Comment.class);
+    }
+
+    @Test
+    public void signupFormToUser() {
+        SignupForm form = new SignupForm();
+        form.setUsername("username");
+        form.setPassword("password");
+
+        assertSameEntity(form, User.class);
+    }
+
+    @Test
+    public void userFormToUser() {
+        UserForm form = new UserForm();
+        form.setUsername("username");
+        form.setPassword("password");
+        form.setName("name");
+        form.setEmail("name@example.com");
+        form.setRole("ADMIN");
+
+        assertSameEntity(form, User.class);
+    }
+
+    @Test
+    public void profileFormToUser() {
+        ProfileForm form = new ProfileForm();
+        form.setName("name");
+        form.setEmail("name@example.com");
+
+        assertSameEntity(form, User.class);
+    }
+
+    @Test
+    public void profileFormOntoExistingUser() {
+        ProfileForm form = new ProfileForm();
+        form.setName("renamed");
+        form.setEmail("renamed@example.com");
+
+        User expected = user(1L, "author", "Author");
+        modelMapper.map(form, expected);
+
+        User actual = user(1L, "author", "Author");
+        DTOUtils.mapTo(form, actual);
+
+        assertThat(actual).isEqualToComparingFieldByField(expected);
+    }
+
+    private <T> void assertSameJson(Object source, Class<T> targetClass) throws Exception {
+        JsonNode expected = objectMapper.valueToTree(modelMapper.map(source, targetClass));
+        JsonNode actual = objectMapper.valueToTree(DTOUtils.map(source, targetClass));
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private <T> void assertSameEntity(Object source, Class<T> targetClass) {
+        T expected = modelMapper.map(source, targetClass);
+        T actual = DTOUtils.map(source, targetClass);
+
+        assertThat(actual).isEqualToComparingFieldByField(expected);
+    }
+
+    private static Post post(User createdBy, User lastModifiedBy) {
+        Post post = new Post("title", "content");
+        post.setId(2L);
+        post.setVersion(4L);
+        post.setStatus(Post.Status.PUBLISHED);
+        post.setCommentCount(12);
+        post.setCreatedBy(createdBy);
+        post.setCreatedDate(LocalDateTime.of(2016, 1, 2, 3, 4, 5));
+        post.setLastModifiedBy(lastModifiedBy);
+        post.setLastModifiedDate(LocalDateTime.of(2016, 2, 3, 4, 5, 6));
+        return post;
+    }
+
+    private static User user(Long id, String username, String name) {
+        User user = new User(username, "{hash}", name, "USER");
+        user.setId(id);
+        user.setVersion(1L);
+        user.setEmail(username + "@example.com");
+        user.setCreatedDate(LocalDateTime.of(2015, 12, 1, 0, 0));
+        return user;
+    }
+}
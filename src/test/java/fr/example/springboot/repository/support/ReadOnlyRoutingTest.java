@@ -0,0 +1,76 @@
+package fr.example.springboot.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.example.springboot.AbstractIntegrationTest;
+import fr.example.springboot.exception.ResourceNotFoundException;
+import fr.example.springboot.service.BlogService;
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostForm;
+
+/**
+ * Runs the application with the replica profile, on two H2 databases: the
+ * replica is a copy of the primary taken on startup, so a row tells which
+ * database a transaction used.
+ *
+ * @author Nour LABIHI
+ */
+@ActiveProfiles({"dev", "replica"})
+public class ReadOnlyRoutingTest extends AbstractIntegrationTest {
+
+    @Inject
+    private BlogService blogService;
+
+    @Inject
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Inject
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    public void writesGoToThePrimary() {
+        Long id = savePost();
+
+        assertThat(countPosts(primaryDataSource, id)).isEqualTo(1);
+        assertThat(countPosts(replicaDataSource, id)).isZero();
+    }
+
+    @Test
+    public void readOnlyTransactionsReadTheReplica() {
+        long id = -System.nanoTime();
+        new JdbcTemplate(replicaDataSource).update("insert into posts (id, title, content, status, comment_count, "
+                + "version) values (?, 'replica only', 'content', 0, 0, 0)", id);
+
+        assertThat(countPosts(primaryDataSource, id)).isZero();
+        assertThat(blogService.findPostVersion(id).getId()).isEqualTo(id);
+    }
+
+    @Test(expected = ResourceNotFoundException.class)
+    public void readOnlyTransactionsDoNotSeeThePrimaryWrites() {
+        blogService.findPostVersion(savePost());
+    }
+
+    private Long savePost() {
+        PostForm form = new PostForm();
+        form.setTitle("routed");
+        form.setContent("content");
+
+        PostDetails saved = blogService.savePost(form);
+        return saved.getId();
+    }
+
+    private static int countPosts(DataSource dataSource, Long id) {
+        return new JdbcTemplate(dataSource).queryForObject("select count(*) from posts where id = ?", Integer.class,
+                id);
+    }
+}
@@ -0,0 +1,114 @@
+package fr.example.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import fr.example.springboot.AbstractIntegrationTest;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.repository.PostRepository;
+
+/**
+ * Checks that {@link CommentCounter} writes every change exactly once and
+ * drops the adders of the posts it flushed, also while the flushes race with
+ * the increments.
+ *
+ * @author Nour LABIHI
+ */
+public class CommentCounterTest extends AbstractIntegrationTest {
+
+    @Inject
+    private CommentCounter commentCounter;
+
+    @Inject
+    private PostRepository postRepository;
+
+    @Inject
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void flushWritesTheCountsAndDropsTheAdders() {
+        Long id = postRepository.save(new Post("counted", "content")).getId();
+
+        commentCounter.add(id, 3);
+        commentCounter.add(id, -1);
+        commentCounter.flush();
+
+        assertThat(commentCount(id)).isEqualTo(2);
+        assertThat(commentCounter.size()).isZero();
+    }
+
+    @Test
+    public void flushDropsTheAddersBackToZero() {
+        Long id = postRepository.save(new Post("counted", "content")).getId();
+
+        commentCounter.add(id, 1);
+        commentCounter.add(id, -1);
+        commentCounter.flush();
+
+        assertThat(commentCount(id)).isZero();
+        assertThat(commentCounter.size()).isZero();
+    }
+
+    @Test
+    public void noIncrementIsLostToAConcurrentFlush() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(postRepository.save(new Post("counted", "content")).getId());
+        }
+
+        int threads = 4;
+        int increments = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean adding = new AtomicBoolean(true);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (adding.get()) {
+                    commentCounter.flush();
+                }
+            });
+
+            List<Future<?>> adders = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                adders.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        commentCounter.add(ids.get(i % ids.size()), 1);
+                    }
+                }));
+            }
+            for (Future<?> adder : adders) {
+                adder.get(1, TimeUnit.MINUTES);
+            }
+
+            adding.set(false);
+            flusher.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        commentCounter.flush();
+        commentCounter.flush();
+
+        long total = 0;
+        for (Long id : ids) {
+            total += commentCount(id);
+        }
+        assertThat(total).isEqualTo((long) threads * increments);
+        assertThat(commentCounter.size()).isZero();
+    }
+
+    private long commentCount(Long id) {
+        return jdbcTemplate.queryForObject("select comment_count from posts where id = ?", Long.class, id);
+    }
+}
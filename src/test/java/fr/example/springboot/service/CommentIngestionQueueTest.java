@@ -0,0 +1,84 @@
+package fr.example.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+
+import fr.example.springboot.AbstractIntegrationTest;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.exception.QueueFullException;
+import fr.example.springboot.repository.PostRepository;
+import fr.example.springboot.web.dto.CommentForm;
+import fr.example.springboot.web.dto.IngestionStatistics;
+
+/**
+ * Checks that a shutdown of {@link CommentIngestionQueue} racing with the
+ * offers writes every accepted comment. The queue is a new instance wired to
+ * the application beans, so that the shared one keeps running.
+ *
+ * @author Nour LABIHI
+ */
+public class CommentIngestionQueueTest extends AbstractIntegrationTest {
+
+    @Inject
+    private ApplicationContext context;
+
+    @Inject
+    private PostRepository postRepository;
+
+    @Test
+    public void shutdownWritesEveryAcceptedComment() throws Exception {
+        Long postId = postRepository.save(new Post("ingested", "content")).getId();
+
+        CommentIngestionQueue queue = new CommentIngestionQueue();
+        context.getAutowireCapableBeanFactory().autowireBean(queue);
+        queue.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> offers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                offers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        try {
+                            queue.offer(postId, comment(i));
+                        } catch (QueueFullException e) {
+                            return;
+                        }
+                    }
+                }));
+            }
+
+            Thread.sleep(10);
+            queue.shutdown();
+
+            for (Future<?> offer : offers) {
+                offer.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        IngestionStatistics stats = queue.statistics();
+
+        assertThat(stats.getDropped()).isZero();
+        assertThat(stats.getDepth()).isZero();
+        assertThat(stats.getCommitted() + stats.getFailed()).isEqualTo(stats.getAccepted());
+    }
+
+    private static CommentForm comment(int i) {
+        CommentForm form = new CommentForm();
+        form.setContent("comment " + i);
+        return form;
+    }
+}
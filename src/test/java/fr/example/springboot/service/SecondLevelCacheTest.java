@@ -0,0 +1,255 @@
+package fr.example.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+
+import org.hibernate.Cache;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.junit.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import fr.example.springboot.AbstractIntegrationTest;
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.User;
+import fr.example.springboot.repository.CommentRepository;
+import fr.example.springboot.repository.PostRepository;
+import fr.example.springboot.repository.UserRepository;
+import fr.example.springboot.web.dto.PasswordForm;
+import fr.example.springboot.web.dto.PostForm;
+import fr.example.springboot.web.dto.PostPatch;
+import fr.example.springboot.web.dto.ProfileForm;
+import fr.example.springboot.web.dto.ProfilePatch;
+import fr.example.springboot.web.dto.UserForm;
+import fr.example.springboot.web.dto.UserPatch;
+
+/**
+ * Checks that no update or delete of {@link BlogService} and
+ * {@link UserService} leaves a stale entry in the second-level cache: the
+ * entity updates replace the entry with the new state, the bulk statements
+ * and the deletes remove it.
+ *
+ * The fixtures are saved through the repositories so that no comment count
+ * is pending, its flush would evict the post region in the middle of a test.
+ *
+ * @author Nour LABIHI
+ */
+public class SecondLevelCacheTest extends AbstractIntegrationTest {
+
+    @Inject
+    private BlogService blogService;
+
+    @Inject
+    private UserService userService;
+
+    @Inject
+    private PostRepository postRepository;
+
+    @Inject
+    private CommentRepository commentRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    @Inject
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void updatePostReplacesTheCachedPost() {
+        Post post = cachedPost();
+
+        PostForm form = new PostForm();
+        form.setTitle("updated title");
+        form.setContent("updated content");
+        blogService.updatePost(post.getId(), form);
+
+        assertThat(cache().containsEntity(Post.class, post.getId())).isTrue();
+
+        long hits = region(Post.class).getHitCount();
+        Post reloaded = postRepository.findOne(post.getId());
+
+        assertThat(region(Post.class).getHitCount()).isEqualTo(hits + 1);
+        assertThat(reloaded.getTitle()).isEqualTo("updated title");
+        assertThat(reloaded.getVersion()).isEqualTo(post.getVersion() + 1);
+    }
+
+    @Test
+    public void patchPostEvictsTheCachedPost() {
+        Post post = cachedPost();
+
+        PostPatch patch = new PostPatch();
+        patch.setVersion(post.getVersion());
+        patch.setTitle("patched title");
+        blogService.patchPost(post.getId(), patch);
+
+        assertThat(cache().containsEntity(Post.class, post.getId())).isFalse();
+        assertThat(postRepository.findOne(post.getId()).getTitle()).isEqualTo("patched title");
+    }
+
+    @Test
+    public void deletePostEvictsThePostAndItsComments() {
+        Post post = cachedPost();
+        Comment comment = cachedComment(post);
+
+        blogService.deletePostById(post.getId());
+
+        assertThat(cache().containsEntity(Post.class, post.getId())).isFalse();
+        assertThat(cache().containsEntity(Comment.class, comment.getId())).isFalse();
+        assertThat(postRepository.findOne(post.getId())).isNull();
+    }
+
+    @Test
+    public void deletePostsEvictsThePosts() {
+        Post first = cachedPost();
+        Post second = cachedPost();
+
+        assertThat(blogService.deletePosts(Arrays.asList(first.getId(), second.getId()))).isEqualTo(2);
+
+        assertThat(cache().containsEntity(Post.class, first.getId())).isFalse();
+        assertThat(cache().containsEntity(Post.class, second.getId())).isFalse();
+    }
+
+    @Test
+    public void deleteCommentEvictsTheCachedComment() {
+        Comment comment = cachedComment(cachedPost());
+
+        blogService.deleteCommentById(comment.getId());
+
+        assertThat(cache().containsEntity(Comment.class, comment.getId())).isFalse();
+        assertThat(commentRepository.findOne(comment.getId())).isNull();
+    }
+
+    @Test
+    public void updateUserReplacesTheCachedUser() {
+        User user = cachedUser("password");
+
+        UserForm form = new UserForm();
+        form.setUsername(user.getUsername());
+        form.setPassword(user.getPassword());
+        form.setName("renamed");
+        form.setEmail("renamed@example.com");
+        form.setRole("ADMIN");
+        userService.updateUser(user.getId(), form);
+
+        assertCachedUser(user, u -> assertThat(u.getRole()).isEqualTo("ADMIN"));
+    }
+
+    @Test
+    public void updateProfileReplacesTheCachedUser() {
+        User user = cachedUser("password");
+
+        ProfileForm form = new ProfileForm();
+        form.setName("renamed");
+        form.setEmail("renamed@example.com");
+        userService.updateProfile(user.getId(), form);
+
+        assertCachedUser(user, u -> assertThat(u.getName()).isEqualTo("renamed"));
+    }
+
+    @Test
+    public void updatePasswordReplacesTheCachedUser() {
+        User user = cachedUser("password");
+
+        PasswordForm form = new PasswordForm();
+        form.setOldPassword("password");
+        form.setNewPassword("new password");
+        userService.updatePassword(user.getId(), form);
+
+        assertCachedUser(user, u -> assertThat(passwordEncoder.matches("new password", u.getPassword())).isTrue());
+    }
+
+    @Test
+    public void patchUserEvictsTheCachedUser() {
+        User user = cachedUser("password");
+
+        UserPatch patch = new UserPatch();
+        patch.setVersion(user.getVersion());
+        patch.setRole("ADMIN");
+        userService.patchUser(user.getId(), patch);
+
+        assertThat(cache().containsEntity(User.class, user.getId())).isFalse();
+        assertThat(userRepository.findOne(user.getId()).getRole()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    public void patchProfileEvictsTheCachedUser() {
+        User user = cachedUser("password");
+
+        ProfilePatch patch = new ProfilePatch();
+        patch.setVersion(user.getVersion());
+        patch.setName("patched");
+        userService.patchProfile(user.getId(), patch);
+
+        assertThat(cache().containsEntity(User.class, user.getId())).isFalse();
+        assertThat(userRepository.findOne(user.getId()).getName()).isEqualTo("patched");
+    }
+
+    @Test
+    public void deleteUserEvictsTheCachedUser() {
+        User user = cachedUser("password");
+
+        userService.deleteUser(user.getId());
+
+        assertThat(cache().containsEntity(User.class, user.getId())).isFalse();
+        assertThat(userRepository.findOne(user.getId())).isNull();
+    }
+
+    /**
+     * a new post, loaded once so that it is in the cache
+     */
+    private Post cachedPost() {
+        Post saved = postRepository.save(new Post("title", "content"));
+
+        return loaded(Post.class, saved.getId(), postRepository.findOne(saved.getId()));
+    }
+
+    private Comment cachedComment(Post post) {
+        Comment comment = new Comment();
+        comment.setContent("comment");
+        comment.setPost(post);
+        Comment saved = commentRepository.save(comment);
+
+        return loaded(Comment.class, saved.getId(), commentRepository.findOne(saved.getId()));
+    }
+
+    private User cachedUser(String password) {
+        User saved = userRepository.save(new User(unique("cache"), passwordEncoder.encode(password), "Cached",
+                "USER"));
+
+        return loaded(User.class, saved.getId(), userRepository.findOne(saved.getId()));
+    }
+
+    private <T> T loaded(Class<T> type, Serializable id, T entity) {
+        assertThat(entity).isNotNull();
+        assertThat(cache().containsEntity(type, id)).isTrue();
+        return entity;
+    }
+
+    /**
+     * the user is still cached, at the next version, and the entry holds the
+     * new state
+     */
+    private void assertCachedUser(User before, Consumer<User> newState) {
+        assertThat(cache().containsEntity(User.class, before.getId())).isTrue();
+
+        long hits = region(User.class).getHitCount();
+        User reloaded = userRepository.findOne(before.getId());
+
+        assertThat(region(User.class).getHitCount()).isEqualTo(hits + 1);
+        assertThat(reloaded.getVersion()).isEqualTo(before.getVersion() + 1);
+        newState.accept(reloaded);
+    }
+
+    private Cache cache() {
+        return sessionFactory().getCache();
+    }
+
+    private SecondLevelCacheStatistics region(Class<?> type) {
+        return statistics().getSecondLevelCacheStatistics(type.getName());
+    }
+}
@@ -0,0 +1,76 @@
+package fr.example.springboot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import fr.example.springboot.Application;
+import fr.example.springboot.service.SerializedPostCache.SerializedPost;
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostVersion;
+import fr.example.springboot.web.dto.SimpleUserDetails;
+
+/**
+ * Checks that {@link SerializedPostCache} serves a post only for the exact
+ * version it was read at, authors included.
+ *
+ * @author Nour LABIHI
+ */
+public class SerializedPostCacheTest {
+
+    private final SerializedPostCache cache = new SerializedPostCache(10, 60, true);
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(cache, "objectMapper", new Application().objectMapperBuilder().build());
+    }
+
+    @Test
+    public void servesTheSameVersion() {
+        SerializedPost put = cache.put(new PostVersion(1L, 2L, 3L, 4L, 5L), post());
+
+        assertThat(cache.get(new PostVersion(1L, 2L, 3L, 4L, 5L))).isSameAs(put);
+    }
+
+    @Test
+    public void missesAfterAnAuthorChange() {
+        cache.put(new PostVersion(1L, 2L, 3L, 4L, 5L), post());
+
+        assertThat(cache.get(new PostVersion(1L, 2L, 3L, 6L, 5L))).isNull();
+        assertThat(cache.get(new PostVersion(1L, 2L, 3L, 4L, 6L))).isNull();
+    }
+
+    @Test
+    public void missesAfterAnUpdateOrANewComment() {
+        cache.put(new PostVersion(1L, 2L, 3L, 4L, 5L), post());
+
+        assertThat(cache.get(new PostVersion(1L, 3L, 3L, 4L, 5L))).isNull();
+        assertThat(cache.get(new PostVersion(1L, 2L, 4L, 4L, 5L))).isNull();
+    }
+
+    @Test
+    public void evictsEveryVersionOfAPost() {
+        cache.put(new PostVersion(1L, 2L, 3L, 4L, 5L), post());
+        cache.put(new PostVersion(1L, 2L, 3L, 6L, 5L), post());
+
+        cache.evictAll(Collections.singletonList(1L));
+
+        assertThat(cache.get(new PostVersion(1L, 2L, 3L, 4L, 5L))).isNull();
+        assertThat(cache.get(new PostVersion(1L, 2L, 3L, 6L, 5L))).isNull();
+    }
+
+    private static PostDetails post() {
+        PostDetails post = new PostDetails();
+        post.setId(1L);
+        post.setVersion(2L);
+        post.setCommentCount(3);
+        post.setTitle("title");
+        post.setContent("content");
+        post.setCreatedBy(new SimpleUserDetails(1L, "author", "Author"));
+        return post;
+    }
+}
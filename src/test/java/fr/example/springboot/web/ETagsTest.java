@@ -0,0 +1,66 @@
+package fr.example.springboot.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import fr.example.springboot.web.dto.PostDetails;
+import fr.example.springboot.web.dto.PostVersion;
+import fr.example.springboot.web.dto.SimpleUserDetails;
+
+/**
+ * Checks that the post tags change with the authors, whose renames do not bump
+ * the version of the post.
+ *
+ * @author Nour LABIHI
+ */
+public class ETagsTest {
+
+    @Test
+    public void postTagChangesWithTheAuthorVersions() {
+        String tag = ETags.of(ETags.POST, new PostVersion(1L, 2L, 3L, 4L, 5L));
+
+        assertThat(ETags.of(ETags.POST, new PostVersion(1L, 2L, 3L, 4L, 5L))).isEqualTo(tag);
+        assertThat(ETags.of(ETags.POST, new PostVersion(1L, 2L, 3L, 6L, 5L))).isNotEqualTo(tag);
+        assertThat(ETags.of(ETags.POST, new PostVersion(1L, 2L, 3L, 4L, 6L))).isNotEqualTo(tag);
+        assertThat(ETags.of(ETags.POST, new PostVersion(1L, 2L, 3L, null, 5L))).isNotEqualTo(tag);
+    }
+
+    @Test
+    public void postTagChangesWithTheCommentCount() {
+        assertThat(ETags.of(ETags.POST, new PostVersion(1L, 2L, 3L, 4L, 5L)))
+                .isNotEqualTo(ETags.of(ETags.POST, new PostVersion(1L, 2L, 4L, 4L, 5L)));
+    }
+
+    @Test
+    public void listTagChangesWhenAnAuthorIsRenamed() {
+        PostDetails post = post(new SimpleUserDetails(1L, "author", "Author"));
+        String tag = ETags.ofList(ETags.POSTS, Collections.singletonList(post));
+
+        PostDetails renamed = post(new SimpleUserDetails(1L, "author", "Renamed"));
+
+        assertThat(ETags.ofList(ETags.POSTS, Collections.singletonList(renamed))).isNotEqualTo(tag);
+    }
+
+    @Test
+    public void matchesWeakly() {
+        String tag = ETags.of(ETags.POST, new PostVersion(1L, 2L, 0L, null, null));
+
+        assertThat(ETags.matches(tag.substring(2), tag)).isTrue();
+        assertThat(ETags.matches("\"other\", " + tag, tag)).isTrue();
+        assertThat(ETags.matches("*", tag)).isTrue();
+        assertThat(ETags.matches(null, tag)).isFalse();
+    }
+
+    private static PostDetails post(SimpleUserDetails author) {
+        PostDetails post = new PostDetails();
+        post.setId(1L);
+        post.setVersion(2L);
+        post.setCommentCount(3);
+        post.setCreatedBy(author);
+        post.setLastModifiedBy(author);
+        return post;
+    }
+}
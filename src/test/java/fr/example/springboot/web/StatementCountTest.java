@@ -0,0 +1,212 @@
+package fr.example.springboot.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import fr.example.springboot.AbstractIntegrationTest;
+import fr.example.springboot.Constants;
+import fr.example.springboot.domain.Comment;
+import fr.example.springboot.domain.Post;
+import fr.example.springboot.domain.User;
+import fr.example.springboot.repository.CommentRepository;
+import fr.example.springboot.repository.PostRepository;
+import fr.example.springboot.repository.UserRepository;
+import fr.example.springboot.security.UserPrincipal;
+import fr.example.springboot.service.BlogService;
+import fr.example.springboot.web.dto.PostForm;
+
+/**
+ * Counts the statements of the read endpoints of the posts: each one runs a
+ * fixed number of statements, whether the rows have one author or many, so
+ * that a lazy association loaded one row at a time shows up here.
+ *
+ * The second-level cache is emptied before each request, the counts are the
+ * ones of a cold read. The security filters are not applied, the endpoints are
+ * called as is. The posts are saved through {@link BlogService} so that the
+ * search index finds them, and each request checks its number of rows, an
+ * empty result running no statement at all.
+ *
+ * @author Nour LABIHI
+ */
+public class StatementCountTest extends AbstractIntegrationTest {
+
+    private static final String POSTS = Constants.URI_API_PREFIX + Constants.URI_POSTS;
+
+    @Inject
+    private WebApplicationContext context;
+
+    @Inject
+    private BlogService blogService;
+
+    @Inject
+    private PostRepository postRepository;
+
+    @Inject
+    private CommentRepository commentRepository;
+
+    @Inject
+    private UserRepository userRepository;
+
+    private MockMvc mvc;
+
+    @Before
+    public void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void getPost() throws Exception {
+        Post post = post(unique("post"), author());
+
+        assertThat(statements(POSTS + "/" + post.getId(), -1)).isEqualTo(2);
+    }
+
+    @Test
+    public void getPostsPage() throws Exception {
+        String keyword = unique("page");
+        posts(keyword, 1);
+        long one = statements(POSTS + "?count=false&q=" + keyword, 1);
+
+        String other = unique("page");
+        posts(other, 6);
+
+        assertThat(statements(POSTS + "?count=false&q=" + other, 6)).isEqualTo(one).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    public void getPostsByCursor() throws Exception {
+        String keyword = unique("cursor");
+        posts(keyword, 1);
+        long one = statements(POSTS + "?cursor&q=" + keyword, 1);
+
+        String other = unique("cursor");
+        posts(other, 6);
+
+        assertThat(statements(POSTS + "?cursor&q=" + other, 6)).isEqualTo(one).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    public void getCommentsOfPost() throws Exception {
+        Post single = postWithComments(1);
+        long one = statements(POSTS + "/" + single.getId() + "/comments?count=false", 1);
+
+        Post many = postWithComments(6);
+
+        assertThat(statements(POSTS + "/" + many.getId() + "/comments?count=false", 6)).isEqualTo(one)
+                .isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    public void getCommentsOfPostWithCount() throws Exception {
+        Post many = postWithComments(6);
+
+        assertThat(statements(POSTS + "/" + many.getId() + "/comments", 6)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void getCommentsOfPostByCursor() throws Exception {
+        Post single = postWithComments(1);
+        long one = statements(POSTS + "/" + single.getId() + "/comments?cursor", 1);
+
+        Post many = postWithComments(6);
+
+        assertThat(statements(POSTS + "/" + many.getId() + "/comments?cursor", 6)).isEqualTo(one)
+                .isLessThanOrEqualTo(1);
+    }
+
+    /**
+     * the statements prepared to answer the GET, on a cold second-level cache
+     *
+     * @param rows the number of rows of the list returned, -1 for a single
+     *            resource
+     */
+    private long statements(String uri, int rows) throws Exception {
+        sessionFactory().getCache().evictAllRegions();
+        long before = statistics().getPrepareStatementCount();
+
+        ResultActions result = mvc.perform(get(uri)).andExpect(status().isOk());
+
+        long statements = statistics().getPrepareStatementCount() - before;
+
+        if (rows >= 0) {
+            result.andExpect(jsonPath("$.content", hasSize(rows)));
+        }
+
+        return statements;
+    }
+
+    /**
+     * posts with the keyword in their title, each by its own author
+     */
+    private List<Post> posts(String keyword, int count) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            posts.add(post(keyword + " " + i, author()));
+        }
+        return posts;
+    }
+
+    /**
+     * a post with the given number of comments, each by its own author
+     */
+    private Post postWithComments(int count) {
+        Post post = post(unique("commented"), author());
+        for (int i = 0; i < count; i++) {
+            as(author());
+            Comment comment = new Comment();
+            comment.setContent("comment " + i);
+            comment.setPost(post);
+            commentRepository.save(comment);
+        }
+        return post;
+    }
+
+    /**
+     * saved through the service, which adds the post to the search index
+     */
+    private Post post(String title, User author) {
+        as(author);
+
+        PostForm form = new PostForm();
+        form.setTitle(title);
+        form.setContent("content");
+
+        return postRepository.findOne(blogService.savePost(form).getId());
+    }
+
+    private User author() {
+        return userRepository.save(new User(unique("author"), "{hash}", "Author", "USER"));
+    }
+
+    /**
+     * makes the user the auditor of the next saves
+     */
+    private static void as(User user) {
+        UserPrincipal principal = UserPrincipal.of(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,59 @@
+package fr.example.springboot.web.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * @author Nour LABIHI
+ */
+public class CursorPageTest {
+
+    @Test
+    public void firstPage() {
+        CursorPage<String> page = CursorPage.of(Arrays.asList("a", "b"), true, false, null, s -> s);
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.getNext()).isEqualTo("b");
+        assertThat(page.getPrevious()).isNull();
+    }
+
+    @Test
+    public void backwardPageIsReversed() {
+        CursorPage<String> page = CursorPage.of(Arrays.asList("b", "a"), true, true, "c", s -> s);
+
+        assertThat(page.getContent()).containsExactly("a", "b");
+        assertThat(page.getNext()).isEqualTo("b");
+        assertThat(page.getPrevious()).isEqualTo("a");
+    }
+
+    @Test
+    public void emptyPageWithoutCursor() {
+        CursorPage<String> page = CursorPage.of(Collections.emptyList(), false, false, null, s -> s);
+
+        assertThat(page.getNext()).isNull();
+        assertThat(page.getPrevious()).isNull();
+    }
+
+    @Test
+    public void emptyPageAfterCursorLeadsBack() {
+        CursorPage<String> page = CursorPage.of(Collections.emptyList(), false, false, "z", s -> s);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getNext()).isNull();
+        assertThat(page.getPrevious()).isEqualTo("z");
+    }
+
+    @Test
+    public void emptyPageBeforeCursorLeadsBack() {
+        CursorPage<String> page = CursorPage.of(Collections.emptyList(), false, true, "a", s -> s);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getNext()).isEqualTo("a");
+        assertThat(page.getPrevious()).isNull();
+    }
+
+}
@@ -0,0 +1,49 @@
+package fr.example.springboot.web.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.junit.Test;
+
+/**
+ * @author Nour LABIHI
+ */
+public class PostPatchTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    public void acceptsTheLimits() {
+        assertThat(validator.validate(patch(repeat(255), repeat(2000)))).isEmpty();
+        assertThat(validator.validate(patch(null, null))).isEmpty();
+    }
+
+    @Test
+    public void rejectsOversizedFields() {
+        assertThat(validator.validate(patch(repeat(256), null))).hasSize(1);
+        assertThat(validator.validate(patch(null, repeat(2001)))).hasSize(1);
+    }
+
+    @Test
+    public void rejectsEmptyFields() {
+        assertThat(validator.validate(patch("", ""))).hasSize(2);
+    }
+
+    private static PostPatch patch(String title, String content) {
+        PostPatch patch = new PostPatch();
+        patch.setVersion(1L);
+        patch.setTitle(title);
+        patch.setContent(content);
+        return patch;
+    }
+
+    private static String repeat(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+}